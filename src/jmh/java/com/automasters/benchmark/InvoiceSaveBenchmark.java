@@ -0,0 +1,80 @@
+package com.automasters.benchmark;
+
+import com.automasters.dao.IdSequenceDAO;
+import com.automasters.dao.InvoiceDAO;
+import com.automasters.entity.Invoice;
+import com.automasters.entity.InvoiceItem;
+import com.automasters.util.HibernateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of InvoiceDAO.save() for job cards of 1, 10 and 50 lines, against a real database.
+ * batching=false turns off JDBC batching, insert ordering and rewriteBatchedStatements, so every row
+ * is its own INSERT round trip; batching=true uses hibernate.cfg.xml as is. Both take ids from the pooled
+ * sequences, so this isolates the batching settings; it is not a measurement of the old IDENTITY ids.
+ * JMH runs each parameter combination in its own fork, so the setting applies before Hibernate starts.
+ * Writes invoices, so it refuses to run unless pointed at a scratch database, e.g.
+ * -Djmh.args="InvoiceSave -jvmArgsAppend -Djakarta.persistence.jdbc.url=jdbc:mysql://localhost:3308/automasters_bench"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InvoiceSaveBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int lines;
+
+    @Param({"false", "true"})
+    public boolean batching;
+
+    private InvoiceDAO invoiceDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("jakarta.persistence.jdbc.url");
+        if (url == null) {
+            throw new IllegalStateException(
+                    "Set -Djakarta.persistence.jdbc.url to a scratch database, this benchmark saves invoices");
+        }
+        if (!batching) {
+            System.setProperty("hibernate.jdbc.batch_size", "0");
+            System.setProperty("hibernate.order_inserts", "false");
+            System.setProperty("hibernate.order_updates", "false");
+            System.setProperty("hibernate.hikari.dataSource.rewriteBatchedStatements", "false");
+        }
+        new IdSequenceDAO().alignWithExistingIds();
+        invoiceDAO = new InvoiceDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HibernateUtil.shutdown();
+    }
+
+    @Benchmark
+    public Invoice save() {
+        Invoice invoice = new Invoice(null, "Benchmark Customer", "0771234567", "CAB-1234", 45000);
+        for (int i = 1; i <= lines; i++) {
+            invoice.addItem(new InvoiceItem(i, "Service line " + i, 1500.0));
+        }
+        invoiceDAO.save(invoice);
+        return invoice;
+    }
+}
@@ -0,0 +1,88 @@
+package com.automasters.benchmark;
+
+import com.automasters.dao.ItemCatalog;
+import com.automasters.entity.Item;
+import com.automasters.util.StringSimilarity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one duplicate check as done by ItemDAO.findSimilarItems, i.e. per item added on the
+ * Item Management screen. linearScan is the old approach of areSimilar against every item;
+ * catalog goes through ItemCatalog's similarity index. Also covers the substring search
+ * behind the search-as-you-type fields.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemMatchingBenchmark {
+
+    private static final double THRESHOLD = 75.0;
+    private static final String[] SEARCH_TERMS = {"br", "pad", "filter", "toyota axio", "bosch", "10w40"};
+
+    @Param({"1000", "10000", "100000"})
+    public int corpusSize;
+
+    private List<Item> items;
+    private ItemCatalog catalog;
+    private String[] queries;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = ItemNameCorpus.items(corpusSize);
+        catalog = ItemCatalog.of(items);
+        List<String> names = new ArrayList<>(items.size());
+        for (Item item : items) {
+            names.add(item.getItemName());
+        }
+        queries = ItemNameCorpus.typedVariants(names, 1024).toArray(new String[0]);
+        // Build the similarity index outside the measurement
+        catalog.findSimilar(queries[0], THRESHOLD);
+    }
+
+    private int next(int length) {
+        int i = index;
+        index = i + 1 == length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public List<Item> linearScan() {
+        String query = queries[next(queries.length)];
+        List<Item> similarItems = new ArrayList<>();
+        for (Item item : items) {
+            if (StringSimilarity.areSimilar(query, item.getItemName(), THRESHOLD)) {
+                similarItems.add(item);
+            }
+        }
+        return similarItems;
+    }
+
+    @Benchmark
+    public List<Item> catalog() {
+        return catalog.findSimilar(queries[next(queries.length)], THRESHOLD);
+    }
+
+    @Benchmark
+    public List<Item> substringSearch() {
+        return catalog.search(SEARCH_TERMS[next(SEARCH_TERMS.length)]);
+    }
+}
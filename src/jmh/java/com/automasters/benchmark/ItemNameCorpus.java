@@ -0,0 +1,102 @@
+package com.automasters.benchmark;
+
+import com.automasters.entity.Item;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Synthetic auto-parts item names in the shape the shop uses ("Brake Pad Front - Toyota Axio"),
+ * generated from a fixed seed so every run sees the same corpus.
+ */
+public class ItemNameCorpus {
+
+    private static final String[] PARTS = {
+            "Brake Pad", "Brake Shoe", "Brake Disc", "Oil Filter", "Air Filter", "Fuel Filter",
+            "Cabin Filter", "Spark Plug", "Glow Plug", "Timing Belt", "Fan Belt", "Drive Belt",
+            "Shock Absorber", "Strut Mount", "Ball Joint", "Tie Rod End", "Rack End", "CV Joint",
+            "Wheel Bearing", "Clutch Plate", "Clutch Cover", "Release Bearing", "Radiator Hose",
+            "Thermostat", "Water Pump", "Wiper Blade", "Head Lamp Bulb", "Engine Mount", "Gear Oil",
+            "Engine Oil", "Coolant", "Brake Fluid", "ATF", "Horn", "Battery", "Alternator Belt",
+            "Stabilizer Link", "Bush Kit", "Gasket Set", "Oxygen Sensor"
+    };
+
+    private static final String[] POSITIONS = {
+            "", "Front", "Rear", "Front Left", "Front Right", "Rear Left", "Rear Right", "Upper", "Lower"
+    };
+
+    private static final String[] VEHICLES = {
+            "Toyota Axio", "Toyota Premio", "Toyota Vitz", "Toyota Hilux", "Suzuki Alto", "Suzuki Wagon R",
+            "Honda Fit", "Honda Vezel", "Honda Grace", "Nissan Sunny", "Nissan Leaf", "Nissan X-Trail",
+            "Mitsubishi Lancer", "Mazda Demio", "Micro Panda", "Perodua Axia", "Hyundai Eon", "Kia Picanto",
+            "Bajaj RE", "Tata Nano"
+    };
+
+    private static final String[] BRANDS = {
+            "", "Bosch", "NGK", "Denso", "Valeo", "Aisin", "KYB", "Mobil", "Castrol", "Genuine"
+    };
+
+    private static final String[] GRADES = {"", "", "", "5W30", "10W40", "15W40", "DOT4", "1L", "4L"};
+
+    public static List<String> names(int size) {
+        Random random = new Random(size);
+        Set<String> names = new LinkedHashSet<>(size * 2);
+        while (names.size() < size) {
+            StringBuilder name = new StringBuilder(PARTS[random.nextInt(PARTS.length)]);
+            append(name, POSITIONS[random.nextInt(POSITIONS.length)]);
+            append(name, GRADES[random.nextInt(GRADES.length)]);
+            name.append(" - ").append(VEHICLES[random.nextInt(VEHICLES.length)]);
+            append(name, BRANDS[random.nextInt(BRANDS.length)]);
+            if (names.size() >= size / 2) {
+                // Part numbers keep large corpora unique
+                name.append(' ').append(random.nextInt(90000) + 10000);
+            }
+            names.add(name.toString());
+        }
+        return new ArrayList<>(names);
+    }
+
+    public static List<Item> items(int size) {
+        List<Item> items = new ArrayList<>(size);
+        long id = 1;
+        for (String name : names(size)) {
+            Item item = new Item(name, null);
+            item.setId(id++);
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Names as a user might re-type an existing one: changed case, dropped or swapped letters, extra spaces
+     */
+    public static List<String> typedVariants(List<String> names, int count) {
+        Random random = new Random(count);
+        List<String> variants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder(names.get(random.nextInt(names.size())).toLowerCase());
+            int position = random.nextInt(name.length() - 1);
+            switch (random.nextInt(4)) {
+                case 0 -> name.deleteCharAt(position);
+                case 1 -> {
+                    char c = name.charAt(position);
+                    name.setCharAt(position, name.charAt(position + 1));
+                    name.setCharAt(position + 1, c);
+                }
+                case 2 -> name.insert(position, ' ');
+                default -> name.setCharAt(position, 'x');
+            }
+            variants.add(name.toString());
+        }
+        return variants;
+    }
+
+    private static void append(StringBuilder name, String part) {
+        if (!part.isEmpty()) {
+            name.append(' ').append(part);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.automasters.benchmark;
+
+import com.automasters.entity.Invoice;
+import com.automasters.entity.InvoiceItem;
+import com.automasters.util.FakePrinterServer;
+import com.automasters.util.FileReceiptSink;
+import com.automasters.util.MemoryReceiptSink;
+import com.automasters.util.ReceiptPrinter;
+import com.automasters.util.ReceiptSink;
+import com.automasters.util.ReceiptSpooler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Receipt printing without a printer. print renders a 10-line receipt and sends it straight to the sink;
+ * spooled goes through ReceiptSpooler (spool file written, spooler thread, sink) and waits until the
+ * receipt has been delivered, i.e. end-to-end latency of Save &amp; Print. The socket sink talks to a
+ * FakePrinterServer on localhost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReceiptPrintBenchmark {
+
+    // Start the memory and file sinks afresh every so many receipts, so they do not grow for the whole run
+    private static final int RESET_RECEIPTS = 10_000;
+
+    @Param({"memory", "file", "socket"})
+    public String sink;
+
+    private Path workDir;
+    private FakePrinterServer server;
+    private CountingSink counting;
+    private ReceiptPrinter printer;
+    private ReceiptSpooler spooler;
+    private Invoice invoice;
+    private long sent;
+
+    /**
+     * Counts receipts delivered by the wrapped sink, so a benchmark can wait for the spooler
+     */
+    private static final class CountingSink implements ReceiptSink {
+        private final ReceiptSink target;
+        private long delivered;
+
+        CountingSink(ReceiptSink target) {
+            this.target = target;
+        }
+
+        @Override
+        public void send(byte[] receipt) throws IOException {
+            target.send(receipt);
+            synchronized (this) {
+                delivered++;
+                notifyAll();
+            }
+        }
+
+        synchronized void await(long count) throws InterruptedException {
+            while (delivered < count) {
+                wait();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("receipt-bench");
+        invoice = new Invoice("INV-004217", "Nimal Perera", "0771234567", "WP CAB-1234", 45210);
+        for (int i = 1; i <= 10; i++) {
+            invoice.addItem(new InvoiceItem(i, "Service line " + i, 1500.0 + i * 12.5));
+        }
+        if (sink.equals("socket")) {
+            server = new FakePrinterServer(0, 0);
+        }
+        counting = new CountingSink(createSink());
+        printer = new ReceiptPrinter(counting);
+        spooler = new ReceiptSpooler(workDir.resolve("spool"), counting);
+    }
+
+    private ReceiptSink createSink() {
+        switch (sink) {
+            case "memory":
+                return new MemoryReceiptSink();
+            case "file":
+                return new FileReceiptSink(workDir.resolve("receipts.prn"));
+            default:
+                return ReceiptSink.fromSpec(server.getSinkSpec());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        spooler.shutdown();
+        if (server != null) {
+            server.close();
+        }
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private void resetIfFull() throws IOException {
+        if (sent % RESET_RECEIPTS != 0) {
+            return;
+        }
+        ReceiptSink target = counting.target;
+        if (target instanceof MemoryReceiptSink) {
+            ((MemoryReceiptSink) target).clear();
+        } else if (target instanceof FileReceiptSink) {
+            target.close();
+            Files.deleteIfExists(workDir.resolve("receipts.prn"));
+        }
+    }
+
+    @Benchmark
+    public void print() throws IOException {
+        printer.printInvoice(invoice);
+        sent++;
+        resetIfFull();
+    }
+
+    @Benchmark
+    public void spooled() throws Exception {
+        spooler.submit(invoice.getInvoiceNumber(), printer.renderInvoice(invoice));
+        counting.await(++sent);
+        resetIfFull();
+    }
+}
@@ -0,0 +1,123 @@
+package com.automasters.benchmark;
+
+import com.automasters.entity.Invoice;
+import com.automasters.entity.InvoiceItem;
+import com.automasters.util.ReceiptTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering one invoice receipt to ESC/POS bytes. formatted is the old ReceiptPrinter approach
+ * (String.format and getBytes per line into a new ByteArrayOutputStream); template is ReceiptTemplate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReceiptRenderBenchmark {
+
+    private static final byte[] BOLD_ON = { 0x1B, 0x45, 0x01 };
+    private static final byte[] BOLD_OFF = { 0x1B, 0x45, 0x00 };
+
+    @Param({"1", "10", "50"})
+    public int lines;
+
+    private Invoice invoice;
+    private ReceiptTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        invoice = new Invoice("INV-004217", "Nimal Perera", "0771234567", "WP CAB-1234", 45210);
+        for (int i = 1; i <= lines; i++) {
+            invoice.addItem(new InvoiceItem(i, "Service line " + i + " with a long description", 1500.0 + i * 12.5));
+        }
+        template = new ReceiptTemplate();
+    }
+
+    @Benchmark
+    public byte[] template() {
+        return template.render(invoice);
+    }
+
+    @Benchmark
+    public byte[] formatted() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(new byte[] { 0x1B, 0x40, 0x1B, 0x61, 0x01, 0x1B, 0x21, 0x10 });
+        baos.write(BOLD_ON);
+        baos.write("SAMPATH\n".getBytes());
+        baos.write("AUTO CARE\n".getBytes());
+        baos.write(new byte[] { 0x1B, 0x21, 0x00 });
+        baos.write("Vehicle Service Center\n".getBytes());
+        baos.write(createLine('-'));
+        baos.write(0x0A);
+        baos.write(new byte[] { 0x1B, 0x61, 0x00 });
+        baos.write(BOLD_ON);
+        baos.write(String.format("Invoice: %s\n", invoice.getInvoiceNumber()).getBytes());
+        baos.write(BOLD_OFF);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+        baos.write(String.format("Date: %s\n", invoice.getInvoiceDate().format(formatter)).getBytes());
+        baos.write(0x0A);
+        baos.write(createLine('-'));
+        baos.write(String.format("Cust : %-22s\n", invoice.getCustomerName()).getBytes());
+        baos.write(String.format("Tel  : %-22s\n", invoice.getContactNumber()).getBytes());
+        baos.write(BOLD_ON);
+        baos.write(String.format("Veh  : %-22s\n", invoice.getVehicleNumber()).getBytes());
+        baos.write(String.format("Mil  : %,d km\n", invoice.getCurrentMileage()).getBytes());
+        baos.write(BOLD_OFF);
+        baos.write(createLine('-'));
+        baos.write(0x0A);
+        baos.write(BOLD_ON);
+        baos.write(String.format("%-21s %10s\n", "Description", "Amount").getBytes());
+        baos.write(BOLD_OFF);
+        baos.write(createLine('-'));
+        for (InvoiceItem item : invoice.getItems()) {
+            String desc = item.getDescription();
+            String price = String.format("%.2f", item.getPrice());
+            if (desc.length() > 21) {
+                desc = desc.substring(0, 19) + "..";
+            }
+            baos.write(String.format("%-21s %10s\n", desc, price).getBytes());
+        }
+        baos.write(createLine('-'));
+        baos.write(0x0A);
+        baos.write(new byte[] { 0x1B, 0x61, 0x02 });
+        baos.write(BOLD_ON);
+        baos.write(new byte[] { 0x1B, 0x21, 0x10 });
+        baos.write(String.format("TOTAL: %10.2f\n", invoice.getTotalAmount()).getBytes());
+        baos.write(new byte[] { 0x1B, 0x21, 0x00 });
+        baos.write(BOLD_OFF);
+        baos.write(0x0A);
+        baos.write(new byte[] { 0x1B, 0x61, 0x01 });
+        baos.write(createLine('-'));
+        baos.write("Thank you!\n".getBytes());
+        baos.write("Visit us again\n".getBytes());
+        baos.write(new byte[] { 0x0A, 0x0A, 0x0A, 0x1D, 0x56, 0x00 });
+        return baos.toByteArray();
+    }
+
+    private static byte[] createLine(char c) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 32; i++) {
+            sb.append(c);
+        }
+        sb.append("\n");
+        return sb.toString().getBytes();
+    }
+}
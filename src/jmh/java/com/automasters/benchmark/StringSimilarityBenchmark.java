@@ -0,0 +1,89 @@
+package com.automasters.benchmark;
+
+import com.automasters.util.StringSimilarity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the individual StringSimilarity routines on pairs of corpus names.
+ * Each invocation compares a typed variant with a corpus name, cycling through the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringSimilarityBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int corpusSize;
+
+    private String[] names;
+    private String[] variants;
+    private String[] normalizedNames;
+    private String[] normalizedVariants;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> corpus = ItemNameCorpus.names(corpusSize);
+        names = corpus.toArray(new String[0]);
+        variants = ItemNameCorpus.typedVariants(corpus, corpusSize).toArray(new String[0]);
+        normalizedNames = new String[names.length];
+        normalizedVariants = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            normalizedNames[i] = StringSimilarity.normalize(names[i]);
+            normalizedVariants[i] = StringSimilarity.normalize(variants[i]);
+        }
+    }
+
+    private int next() {
+        int i = index;
+        index = i + 1 == names.length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public String normalize() {
+        return StringSimilarity.normalize(names[next()]);
+    }
+
+    @Benchmark
+    public int levenshteinDistance() {
+        int i = next();
+        return StringSimilarity.levenshteinDistance(normalizedVariants[i], normalizedNames[i]);
+    }
+
+    @Benchmark
+    public int boundedDistance() {
+        int i = next();
+        int maxDistance = StringSimilarity.maxDistanceFor(normalizedVariants[i].length(), 75.0);
+        return StringSimilarity.boundedDistance(normalizedVariants[i], normalizedNames[i], maxDistance);
+    }
+
+    @Benchmark
+    public double similarityPercentage() {
+        int i = next();
+        return StringSimilarity.similarityPercentage(normalizedVariants[i], normalizedNames[i]);
+    }
+
+    @Benchmark
+    public boolean areSimilar() {
+        int i = next();
+        return StringSimilarity.areSimilar(variants[i], names[i], 75.0);
+    }
+}
@@ -1,8 +1,16 @@
 package com.automasters;
 
+import com.automasters.dao.DailyRevenueDAO;
+import com.automasters.dao.IdSequenceDAO;
+import com.automasters.dao.InvoiceDAO;
+import com.automasters.dao.StockOnHandDAO;
 import com.automasters.ui.MainFrame;
+import com.automasters.util.PrintServiceRegistry;
+import com.automasters.util.ReceiptSpooler;
 
 import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Main application class for AutoMasters Billing System.
@@ -26,6 +34,52 @@ public class App {
         SwingUtilities.invokeLater(() -> {
             MainFrame mainFrame = new MainFrame();
             mainFrame.setVisible(true);
+            runStartupTasks();
         });
     }
+
+    /**
+     * Housekeeping that used to hold up the window, run one task at a time on a background thread once the
+     * window is up. Saves wait for the StartupTasks among them, which therefore go first and are queued
+     * before the EDT handles any input.
+     */
+    private static void runStartupTasks() {
+        ExecutorService tasks = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "startup-tasks");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Fix-ups that saves wait for, see StartupTask: id sequences above existing rows, and the stock on
+        // hand counters and daily revenue rollup filled on the first start after they were added
+        IdSequenceDAO.ALIGNMENT.start(tasks);
+        StockOnHandDAO.FILL.start(tasks);
+        DailyRevenueDAO.REBUILD.start(tasks);
+
+        tasks.execute(() -> {
+            // Give invoices from before the vehicle search key was added a key
+            try {
+                int updated = new InvoiceDAO().backfillVehicleKeys();
+                if (updated > 0) {
+                    System.err.println("Added vehicle search keys to " + updated + " invoice(s)");
+                }
+            } catch (Exception e) {
+                System.err.println("Vehicle key backfill failed: " + e.getMessage());
+            }
+
+            // Look up the printers in the background
+            PrintServiceRegistry.getInstance();
+
+            // Start printing any receipts still spooled from the last run
+            try {
+                int pending = ReceiptSpooler.getInstance().getStatus().pending();
+                if (pending > 0) {
+                    System.err.println("Resuming " + pending + " spooled receipt(s)");
+                }
+            } catch (Exception e) {
+                System.err.println("Receipt spooler failed to start: " + e.getMessage());
+            }
+        });
+        tasks.shutdown();
+    }
 }
@@ -0,0 +1,64 @@
+package com.automasters;
+
+import com.automasters.dao.DailyRevenueDAO;
+import com.automasters.dao.StockOnHandDAO;
+import com.automasters.util.HibernateUtil;
+
+import java.util.Map;
+
+/**
+ * Command line maintenance tasks for the summary tables, run against the configured database.
+ * Usage: java -cp automasters-1.0-SNAPSHOT.jar com.automasters.Maintenance
+ * rebuild-revenue|verify-stock|reconcile-stock|rebuild-stock
+ */
+public class Maintenance {
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            usage();
+            System.exit(1);
+        }
+
+        try {
+            switch (args[0]) {
+                case "rebuild-revenue":
+                    int days = new DailyRevenueDAO().rebuild();
+                    System.out.println("Rebuilt daily revenue for " + days + " day(s)");
+                    break;
+                case "verify-stock":
+                    Map<Long, Integer> mismatches = new StockOnHandDAO().verify();
+                    for (Map.Entry<Long, Integer> entry : mismatches.entrySet()) {
+                        System.out.println("Item " + entry.getKey() + ": stock batches hold " + entry.getValue());
+                    }
+                    System.out.println(mismatches.size() + " stock on hand counter(s) out of sync");
+                    if (!mismatches.isEmpty()) {
+                        System.exit(2);
+                    }
+                    break;
+                case "reconcile-stock":
+                    int corrected = new StockOnHandDAO().reconcile();
+                    System.out.println(corrected > 0
+                            ? "Rebuilt stock on hand: " + corrected + " item(s) were out of sync"
+                            : "Stock on hand is in sync");
+                    break;
+                case "rebuild-stock":
+                    new StockOnHandDAO().rebuild();
+                    System.out.println("Rebuilt stock on hand");
+                    break;
+                default:
+                    usage();
+                    System.exit(1);
+            }
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: com.automasters.Maintenance rebuild-revenue|verify-stock|reconcile-stock|rebuild-stock");
+        System.err.println("  rebuild-revenue  recreate the daily_revenue rollup from invoices");
+        System.err.println("  verify-stock     list stock_on_hand counters that disagree with stock batches");
+        System.err.println("  reconcile-stock  verify the counters and rebuild them if any disagree");
+        System.err.println("  rebuild-stock    recreate the stock_on_hand counters from stock batches");
+    }
+}
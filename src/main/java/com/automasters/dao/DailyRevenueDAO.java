@@ -0,0 +1,123 @@
+package com.automasters.dao;
+
+import com.automasters.entity.DailyRevenue;
+import com.automasters.entity.Invoice;
+import com.automasters.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Maintains the daily_revenue table: one row per day holding the number of invoices, the number of
+ * invoice lines and the invoice total. Rows are changed by InvoiceDAO in the same transaction as the
+ * invoice, so totals over a date range read at most one small row per day instead of every invoice.
+ */
+public class DailyRevenueDAO {
+
+    /**
+     * rebuildIfEmpty, run in the background at startup; InvoiceDAO saves wait for it, since a row
+     * written first would make the table look built
+     */
+    public static final StartupTask REBUILD = new StartupTask("Daily revenue rebuild", () -> {
+        int days = new DailyRevenueDAO().rebuildIfEmpty();
+        if (days > 0) {
+            System.err.println("Built daily revenue for " + days + " day(s)");
+        }
+    });
+
+    /**
+     * Add a new invoice to its day's row, creating the row if needed. Must run inside the caller's transaction.
+     */
+    static void record(Session session, Invoice invoice) {
+        session.createNativeMutationQuery(
+                "INSERT INTO daily_revenue (revenue_date, invoice_count, line_count, total_amount, last_updated) "
+                        + "VALUES (:date, 1, :lines, :amount, :now) "
+                        + "ON DUPLICATE KEY UPDATE invoice_count = invoice_count + 1, "
+                        + "line_count = line_count + :lines, total_amount = total_amount + :amount, last_updated = :now")
+                .setParameter("date", invoice.getInvoiceDate().toLocalDate())
+                .setParameter("lines", invoice.getItems().size())
+                .setParameter("amount", invoice.getTotalAmount())
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    /**
+     * Rows for the days from startDate to endDate inclusive that have invoices, oldest first
+     */
+    public List<DailyRevenue> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return session.createQuery(
+                    "FROM DailyRevenue dr WHERE dr.revenueDate BETWEEN :startDate AND :endDate ORDER BY dr.revenueDate",
+                    DailyRevenue.class)
+                    .setParameter("startDate", startDate)
+                    .setParameter("endDate", endDate)
+                    .list();
+        }
+    }
+
+    /**
+     * Invoice total for the days from startDate to endDate inclusive
+     */
+    public double calculateTotal(LocalDate startDate, LocalDate endDate) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            Double total = session.createQuery(
+                    "SELECT SUM(dr.totalAmount) FROM DailyRevenue dr WHERE dr.revenueDate BETWEEN :startDate AND :endDate",
+                    Double.class)
+                    .setParameter("startDate", startDate)
+                    .setParameter("endDate", endDate)
+                    .uniqueResult();
+            return total != null ? total : 0.0;
+        }
+    }
+
+    /**
+     * Recreate every row from invoices and invoice_items in one transaction. Returns the number of days written.
+     */
+    public int rebuild() {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM DailyRevenue").executeUpdate();
+            int days = session.createNativeMutationQuery(
+                    "INSERT INTO daily_revenue (revenue_date, invoice_count, line_count, total_amount, last_updated) "
+                            + "SELECT CAST(i.invoice_date AS DATE), COUNT(*), COALESCE(SUM(l.line_count), 0), "
+                            + "SUM(i.total_amount), :now FROM invoices i "
+                            + "LEFT JOIN (SELECT invoice_id, COUNT(*) AS line_count FROM invoice_items "
+                            + "GROUP BY invoice_id) l ON l.invoice_id = i.id "
+                            + "GROUP BY CAST(i.invoice_date AS DATE)")
+                    .setParameter("now", LocalDateTime.now())
+                    .executeUpdate();
+            transaction.commit();
+            return days;
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Build the rows if the table is still empty but invoices exist, i.e. on the first start after
+     * the table was added. Returns the number of days written.
+     */
+    public int rebuildIfEmpty() {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            boolean hasRows = !session.createQuery("SELECT dr.revenueDate FROM DailyRevenue dr", LocalDate.class)
+                    .setMaxResults(1)
+                    .list()
+                    .isEmpty();
+            boolean hasInvoices = !session.createQuery("SELECT i.id FROM Invoice i", Long.class)
+                    .setMaxResults(1)
+                    .list()
+                    .isEmpty();
+            if (hasRows || !hasInvoices) {
+                return 0;
+            }
+        }
+        return rebuild();
+    }
+}
@@ -0,0 +1,72 @@
+package com.automasters.dao;
+
+import com.automasters.entity.Invoice;
+import com.automasters.entity.InvoiceItem;
+import com.automasters.entity.StockBatch;
+import com.automasters.entity.StockTransaction;
+import com.automasters.util.HibernateUtil;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Keeps the id generator tables in line with the rows already in the database.
+ * Invoices, invoice items, stock batches and stock transactions take their ids from pooled
+ * sequences (blocks of allocationSize) so Hibernate can batch their inserts. MySQL has no
+ * sequences, so each one is a one-row table (e.g. invoices_seq.next_val) that Hibernate creates
+ * starting at 1, which would collide with ids handed out by the old AUTO_INCREMENT columns.
+ * At startup this runs in the background; the DAOs saving those entities wait for it first.
+ */
+public class IdSequenceDAO {
+
+    private static final Class<?>[] ENTITIES = { Invoice.class, InvoiceItem.class, StockBatch.class,
+            StockTransaction.class };
+
+    /**
+     * alignWithExistingIds, run in the background at startup; saves that take ids from the sequences wait for it
+     */
+    public static final StartupTask ALIGNMENT = new StartupTask("Id sequence alignment",
+            () -> new IdSequenceDAO().alignWithExistingIds());
+
+    /**
+     * Move every sequence past the highest id in its table. Never moves a sequence backwards.
+     */
+    public void alignWithExistingIds() {
+        SessionFactoryImplementor factory = (SessionFactoryImplementor) HibernateUtil.getSessionFactory();
+        if (factory.getJdbcServices().getDialect().getSequenceSupport().supportsSequences()) {
+            return; // Only MySQL databases carry over AUTO_INCREMENT ids from before the sequences
+        }
+
+        Transaction transaction = null;
+        try (Session session = factory.openSession()) {
+            transaction = session.beginTransaction();
+            for (Class<?> entity : ENTITIES) {
+                // Table, sequence and block size as mapped on the entity, so they cannot drift apart
+                String table = entity.getAnnotation(Table.class).name();
+                SequenceGenerator generator = idGenerator(entity);
+                // The pooled optimizer hands out the block below next_val, so leave a full block of headroom
+                session.createNativeMutationQuery(
+                        "UPDATE " + generator.sequenceName() + " SET next_val = GREATEST(next_val, "
+                                + "(SELECT COALESCE(MAX(id), 0) FROM " + table + ") + :headroom)")
+                        .setParameter("headroom", generator.allocationSize() + 1)
+                        .executeUpdate();
+            }
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private static SequenceGenerator idGenerator(Class<?> entity) {
+        try {
+            return entity.getDeclaredField("id").getAnnotation(SequenceGenerator.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(entity.getSimpleName() + " has no id field", e);
+        }
+    }
+}
@@ -1,61 +1,141 @@
 package com.automasters.dao;
 
+import com.automasters.dto.InvoiceReportRow;
+import com.automasters.dto.InvoiceSummary;
 import com.automasters.entity.Invoice;
+import com.automasters.entity.InvoiceItem;
+import com.automasters.entity.InvoiceSequence;
 import com.automasters.util.HibernateUtil;
+import org.hibernate.LockMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class InvoiceDAO {
 
+    private static final String INVOICE_PREFIX = "INV-";
+    // Rows per round trip when streaming report rows (server-side cursor on MySQL, see useCursorFetch)
+    private static final int REPORT_FETCH_SIZE = 500;
+    // Most vehicle keys one search looks up by value; each is a bind parameter
+    private static final int MAX_VEHICLE_KEYS = 200;
+
+    private final DailyRevenueDAO dailyRevenueDAO = new DailyRevenueDAO();
+
+    /**
+     * Save the invoice under the next number from the invoice sequence.
+     * The number shown on the form is only a preview; the saved invoice carries the allocated one.
+     * If the save fails, the invoice keeps the number it came with and has no ids, as nothing was issued.
+     */
     public void save(Invoice invoice) {
-        Transaction transaction = null;
+        IdSequenceDAO.ALIGNMENT.await();
+        DailyRevenueDAO.REBUILD.await();
+        String enteredNumber = invoice.getInvoiceNumber();
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-            session.persist(invoice);
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
+            // Rolled back inside the session: once it is closed, rollback() fails and hides the cause
+            Transaction transaction = session.beginTransaction();
+            try {
+                if (lockSequence(session) == null) {
+                    // First invoice ever: create the sequence row on its own, outside this transaction
+                    transaction.rollback();
+                    seedSequence(session, invoice.getInvoiceNumber());
+                    transaction = session.beginTransaction();
+                }
+                invoice.setInvoiceNumber(allocateInvoiceNumber(session));
+                session.persist(invoice);
+                DailyRevenueDAO.record(session, invoice);
+                transaction.commit();
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                // The allocated number and ids went with the rolled back transaction
+                invoice.setInvoiceNumber(enteredNumber);
+                invoice.setId(null);
+                for (InvoiceItem item : invoice.getItems()) {
+                    item.setId(null);
+                }
+                throw e;
             }
-            throw e;
         }
+        VehicleKeyIndex.getInstance().keySaved(invoice.getVehicleKey());
     }
 
+    private static final String SUMMARY_SELECT = "SELECT new com.automasters.dto.InvoiceSummary("
+            + "i.id, i.invoiceNumber, i.invoiceDate, i.customerName, i.contactNumber, i.vehicleNumber, "
+            + "i.currentMileage, i.totalAmount) FROM Invoice i ";
+
+    /**
+     * Invoices of every vehicle whose number contains the given one, ignoring case, spaces and
+     * punctuation, newest first, with their line items
+     */
     public List<Invoice> findByVehicleNumber(String vehicleNumber) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return session.createQuery(
-                    "FROM Invoice i WHERE LOWER(i.vehicleNumber) LIKE LOWER(:vehicleNumber) ORDER BY i.invoiceDate DESC",
-                    Invoice.class)
-                    .setParameter("vehicleNumber", "%" + vehicleNumber + "%")
-                    .list();
-        }
+        return findByVehicle("FROM Invoice i LEFT JOIN FETCH i.items ", vehicleNumber, Invoice.class);
     }
 
-    public List<Invoice> findByDateRange(LocalDate date) {
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
+    public List<InvoiceSummary> findSummariesByVehicleNumber(String vehicleNumber) {
+        return findByVehicle(SUMMARY_SELECT, vehicleNumber, InvoiceSummary.class);
+    }
 
+    /**
+     * Look up the vehicle keys containing the searched number's key, so the query is an index range
+     * per key instead of a LIKE '%...%' scan over every invoice. A term so short that it matches more
+     * than MAX_VEHICLE_KEYS keys (e.g. "1") falls back to a LIKE over vehicle_key, which reads the
+     * vehicle_key index instead of sending thousands of bind parameters.
+     */
+    private <T> List<T> findByVehicle(String select, String vehicleNumber, Class<T> resultClass) {
+        String key = Invoice.toVehicleKey(vehicleNumber);
+        if (key == null || key.isEmpty()) {
+            return List.of();
+        }
+        List<String> keys = VehicleKeyIndex.getInstance().keysContaining(key, MAX_VEHICLE_KEYS);
+        if (keys.isEmpty()) {
+            return List.of();
+        }
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            if (keys.size() > MAX_VEHICLE_KEYS) {
+                // Keys are upper-case letters and digits only, so the term needs no LIKE escaping
+                return session.createQuery(
+                        select + "WHERE i.vehicleKey LIKE :pattern ORDER BY i.invoiceDate DESC", resultClass)
+                        .setParameter("pattern", "%" + key + "%")
+                        .list();
+            }
             return session.createQuery(
-                    "FROM Invoice i WHERE i.invoiceDate >= :startOfDay AND i.invoiceDate < :endOfDay ORDER BY i.invoiceDate DESC",
-                    Invoice.class)
-                    .setParameter("startOfDay", startOfDay)
-                    .setParameter("endOfDay", endOfDay)
+                    select + "WHERE i.vehicleKey IN (:keys) ORDER BY i.invoiceDate DESC", resultClass)
+                    .setParameterList("keys", keys)
                     .list();
         }
     }
 
+    public CompletableFuture<List<InvoiceSummary>> findSummariesByVehicleNumberAsync(String vehicleNumber) {
+        return DAOExecutor.supplyAsync(() -> findSummariesByVehicleNumber(vehicleNumber));
+    }
+
+    /**
+     * Invoices of one day with their line items, e.g. for the PDF report
+     */
+    public List<Invoice> findByDateRange(LocalDate date) {
+        return findByDateRange(date, date);
+    }
+
     public List<Invoice> findByDateRange(LocalDate startDate, LocalDate endDate) {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
 
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             return session.createQuery(
-                    "FROM Invoice i WHERE i.invoiceDate >= :startDateTime AND i.invoiceDate < :endDateTime ORDER BY i.invoiceDate DESC",
+                    "FROM Invoice i LEFT JOIN FETCH i.items it WHERE i.invoiceDate >= :startDateTime AND i.invoiceDate < :endDateTime ORDER BY i.invoiceDate DESC, i.id, it.serialNumber",
                     Invoice.class)
                     .setParameter("startDateTime", startDateTime)
                     .setParameter("endDateTime", endDateTime)
@@ -63,76 +143,281 @@ public class InvoiceDAO {
         }
     }
 
-    public double calculateTotalIncome(LocalDate date) {
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
+    /**
+     * Report rows for the invoices from startDate to endDate inclusive, newest first, read through a
+     * forward-only cursor so a long range is never held in memory. The stream keeps a session open:
+     * close it when done (try-with-resources).
+     */
+    public Stream<InvoiceReportRow> streamReportRows(LocalDate startDate, LocalDate endDate) {
+        Session session = HibernateUtil.getSessionFactory().openSession();
+        try {
+            ScrollableResults<Object[]> results = session.createQuery(
+                    "SELECT i.id, i.invoiceNumber, i.invoiceDate, i.customerName, i.vehicleNumber, i.totalAmount, "
+                            + "it.description FROM Invoice i LEFT JOIN i.items it "
+                            + "WHERE i.invoiceDate >= :startDateTime AND i.invoiceDate < :endDateTime "
+                            + "ORDER BY i.invoiceDate DESC, i.id, it.serialNumber",
+                    Object[].class)
+                    .setParameter("startDateTime", startDate.atStartOfDay())
+                    .setParameter("endDateTime", endDate.plusDays(1).atStartOfDay())
+                    .setReadOnly(true)
+                    .setFetchSize(REPORT_FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new ReportRowIterator(results),
+                    Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> {
+                        results.close();
+                        session.close();
+                    });
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
 
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Double total = session.createQuery(
-                    "SELECT SUM(i.totalAmount) FROM Invoice i WHERE i.invoiceDate >= :startOfDay AND i.invoiceDate < :endOfDay",
-                    Double.class)
-                    .setParameter("startOfDay", startOfDay)
-                    .setParameter("endOfDay", endOfDay)
-                    .uniqueResult();
-            return total != null ? total : 0.0;
+    /**
+     * Folds the one-row-per-line cursor into one row per invoice
+     */
+    private static final class ReportRowIterator implements Iterator<InvoiceReportRow> {
+        private final ScrollableResults<Object[]> results;
+        private Object[] pending;
+
+        ReportRowIterator(ScrollableResults<Object[]> results) {
+            this.results = results;
+            this.pending = results.next() ? results.get() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null;
+        }
+
+        @Override
+        public InvoiceReportRow next() {
+            if (pending == null) {
+                throw new NoSuchElementException();
+            }
+            Object[] first = pending;
+            int serviceCount = first[6] != null ? 1 : 0;
+            pending = null;
+            while (results.next()) {
+                Object[] row = results.get();
+                if (!row[0].equals(first[0])) {
+                    pending = row;
+                    break;
+                }
+                serviceCount++;
+            }
+            return new InvoiceReportRow((String) first[1], (LocalDateTime) first[2], (String) first[3],
+                    (String) first[4], (Double) first[5], (String) first[6], serviceCount);
         }
     }
 
-    public double calculateTotalIncome(LocalDate startDate, LocalDate endDate) {
+    public List<InvoiceSummary> findSummariesByDateRange(LocalDate date) {
+        return findSummariesByDateRange(date, date);
+    }
+
+    public List<InvoiceSummary> findSummariesByDateRange(LocalDate startDate, LocalDate endDate) {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
 
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Double total = session.createQuery(
-                    "SELECT SUM(i.totalAmount) FROM Invoice i WHERE i.invoiceDate >= :startDateTime AND i.invoiceDate < :endDateTime",
-                    Double.class)
+            return session.createQuery(
+                    SUMMARY_SELECT + "WHERE i.invoiceDate >= :startDateTime AND i.invoiceDate < :endDateTime ORDER BY i.invoiceDate DESC",
+                    InvoiceSummary.class)
                     .setParameter("startDateTime", startDateTime)
                     .setParameter("endDateTime", endDateTime)
-                    .uniqueResult();
-            return total != null ? total : 0.0;
+                    .list();
+        }
+    }
+
+    public CompletableFuture<List<InvoiceSummary>> findSummariesByDateRangeAsync(LocalDate date) {
+        return DAOExecutor.supplyAsync(() -> findSummariesByDateRange(date));
+    }
+
+    /**
+     * Line items of one invoice, loaded when the invoice is opened in a list
+     */
+    public List<InvoiceItem> findItemsByInvoiceId(Long invoiceId) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return session.createQuery(
+                    "FROM InvoiceItem ii WHERE ii.invoice.id = :invoiceId ORDER BY ii.serialNumber",
+                    InvoiceItem.class)
+                    .setParameter("invoiceId", invoiceId)
+                    .list();
         }
     }
 
+    public CompletableFuture<List<InvoiceItem>> findItemsByInvoiceIdAsync(Long invoiceId) {
+        return DAOExecutor.supplyAsync(() -> findItemsByInvoiceId(invoiceId));
+    }
+
+    public double calculateTotalIncome(LocalDate date) {
+        return calculateTotalIncome(date, date);
+    }
+
+    /**
+     * Invoice total for the days from startDate to endDate inclusive, read from the daily_revenue rollup
+     */
+    public double calculateTotalIncome(LocalDate startDate, LocalDate endDate) {
+        return dailyRevenueDAO.calculateTotal(startDate, endDate);
+    }
+
+    /**
+     * Preview of the number the next saved invoice will get
+     */
     public String generateNextInvoiceNumber() {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Long count = session.createQuery("SELECT COUNT(i) FROM Invoice i", Long.class)
-                    .uniqueResult();
+            InvoiceSequence sequence = session.get(InvoiceSequence.class, InvoiceSequence.INVOICE);
+            if (sequence != null) {
+                return formatInvoiceNumber(sequence.getLastNumber() + 1);
+            }
 
-            if (count == 0) {
+            // Sequence not created yet - continue from the last saved invoice
+            String lastInvoiceNumber = findLastInvoiceNumber(session);
+            if (lastInvoiceNumber == null) {
                 // First invoice - return default, user can edit
                 return "INV-0000001";
-            } else {
-                // Get the last invoice number and increment
-                String lastInvoiceNumber = session.createQuery(
-                        "SELECT i.invoiceNumber FROM Invoice i ORDER BY i.id DESC",
-                        String.class)
-                        .setMaxResults(1)
-                        .uniqueResult();
-
-                // Extract number from format INV-XXXXX
-                if (lastInvoiceNumber != null && lastInvoiceNumber.startsWith("INV-")) {
-                    String numberPart = lastInvoiceNumber.substring(4);
-                    int nextNumber = Integer.parseInt(numberPart) + 1;
-                    return String.format("INV-%07d", nextNumber);
-                }
-
-                // Fallback if format is unexpected
-                return String.format("INV-%07d", count + 1);
             }
+            return formatInvoiceNumber(parseInvoiceNumber(session, lastInvoiceNumber) + 1);
         }
     }
 
     public boolean isFirstInvoice() {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Long count = session.createQuery("SELECT COUNT(i) FROM Invoice i", Long.class)
-                    .uniqueResult();
-            return count == 0;
+            return session.get(InvoiceSequence.class, InvoiceSequence.INVOICE) == null
+                    && findLastInvoiceNumber(session) == null;
+        }
+    }
+
+    private InvoiceSequence lockSequence(Session session) {
+        return session.get(InvoiceSequence.class, InvoiceSequence.INVOICE, LockMode.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * Create the invoice sequence row, continuing from existing invoices or from the number the user
+     * entered for the very first invoice. Two terminals saving their first invoice at once may both
+     * get here; the insert leaves an existing row alone, so both go on to lock the same row.
+     */
+    private void seedSequence(Session session, String requestedNumber) {
+        Transaction transaction = null;
+        try {
+            transaction = session.beginTransaction();
+            String lastInvoiceNumber = findLastInvoiceNumber(session);
+            long lastNumber = lastInvoiceNumber != null
+                    ? parseInvoiceNumber(session, lastInvoiceNumber)
+                    : parseInvoiceNumber(session, requestedNumber) - 1;
+            session.createNativeMutationQuery(
+                    "INSERT INTO invoice_sequence (sequence_name, last_number) VALUES (:name, :lastNumber) "
+                            + "ON DUPLICATE KEY UPDATE last_number = last_number")
+                    .setParameter("name", InvoiceSequence.INVOICE)
+                    .setParameter("lastNumber", lastNumber)
+                    .executeUpdate();
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
         }
     }
 
+    /**
+     * Take the next number from the invoice sequence row, holding its lock until the caller commits
+     */
+    private String allocateInvoiceNumber(Session session) {
+        InvoiceSequence sequence = lockSequence(session);
+        if (sequence == null) {
+            throw new IllegalStateException("Invoice sequence row is missing");
+        }
+        sequence.setLastNumber(sequence.getLastNumber() + 1);
+        return formatInvoiceNumber(sequence.getLastNumber());
+    }
+
+    private String findLastInvoiceNumber(Session session) {
+        return session.createQuery(
+                "SELECT i.invoiceNumber FROM Invoice i ORDER BY i.id DESC",
+                String.class)
+                .setMaxResults(1)
+                .uniqueResult();
+    }
+
+    private long parseInvoiceNumber(Session session, String invoiceNumber) {
+        // Extract number from format INV-XXXXX
+        if (invoiceNumber != null && invoiceNumber.startsWith(INVOICE_PREFIX)) {
+            try {
+                return Long.parseLong(invoiceNumber.substring(INVOICE_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                // Fall through to the count below
+            }
+        }
+
+        // Fallback if format is unexpected
+        Long count = session.createQuery("SELECT COUNT(i) FROM Invoice i", Long.class)
+                .uniqueResult();
+        return count + 1;
+    }
+
+    private String formatInvoiceNumber(long number) {
+        return String.format(INVOICE_PREFIX + "%07d", number);
+    }
+
     public Invoice findById(Long id) {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return session.get(Invoice.class, id);
+            return session.createQuery("FROM Invoice i LEFT JOIN FETCH i.items WHERE i.id = :id", Invoice.class)
+                    .setParameter("id", id)
+                    .uniqueResult();
+        }
+    }
+
+    /**
+     * The given invoices with their line items, oldest first, e.g. to reprint a selection of receipts
+     */
+    public List<Invoice> findByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return session.createQuery(
+                    "FROM Invoice i LEFT JOIN FETCH i.items it WHERE i.id IN (:ids) "
+                            + "ORDER BY i.invoiceDate, i.id, it.serialNumber",
+                    Invoice.class)
+                    .setParameterList("ids", ids)
+                    .list();
+        }
+    }
+
+    /**
+     * Fill in the vehicle key of invoices saved before the column existed.
+     * Runs one update per distinct vehicle number; does nothing once every invoice has a key.
+     *
+     * @return number of invoices updated
+     */
+    public int backfillVehicleKeys() {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            List<String> vehicleNumbers = session.createQuery(
+                    "SELECT DISTINCT i.vehicleNumber FROM Invoice i WHERE i.vehicleKey IS NULL", String.class)
+                    .list();
+            int updated = 0;
+            for (String vehicleNumber : vehicleNumbers) {
+                updated += session.createMutationQuery(
+                        "UPDATE Invoice i SET i.vehicleKey = :key "
+                                + "WHERE i.vehicleNumber = :vehicleNumber AND i.vehicleKey IS NULL")
+                        .setParameter("key", Invoice.toVehicleKey(vehicleNumber))
+                        .setParameter("vehicleNumber", vehicleNumber)
+                        .executeUpdate();
+            }
+            transaction.commit();
+            if (updated > 0) {
+                VehicleKeyIndex.getInstance().invalidate();
+            }
+            return updated;
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
         }
     }
 }
@@ -0,0 +1,274 @@
+package com.automasters.dao;
+
+import com.automasters.entity.Item;
+import com.automasters.util.BKTree;
+import com.automasters.util.HibernateUtil;
+import com.automasters.util.StringSimilarity;
+import com.automasters.util.TrigramIndex;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide in-memory copy of the item catalogue, used by ItemDAO for name lookups and searches.
+ * Items are held in an array sorted by lower-case name, with a trigram index for substring search
+ * and a BK-tree over normalized names for duplicate detection.
+ * ItemDAO keeps it current on save/update/delete; changes made from other terminals are picked up
+ * by a background reload once the copy is older than MAX_AGE_MILLIS.
+ */
+public class ItemCatalog {
+
+    private static final long MAX_AGE_MILLIS = 2 * 60 * 1000;
+
+    private static final ItemCatalog instance = new ItemCatalog(ItemCatalog::loadItems, MAX_AGE_MILLIS);
+
+    private final Supplier<List<Item>> loader;
+    private final long maxAgeMillis;
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    // Counts changes made through itemSaved/itemDeleted/invalidate, so a background reload that
+    // started before a change does not replace the snapshot holding it
+    private long changes;
+
+    ItemCatalog(Supplier<List<Item>> loader, long maxAgeMillis) {
+        this.loader = loader;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public static ItemCatalog getInstance() {
+        return instance;
+    }
+
+    /**
+     * Build a catalogue from the given items without touching the database
+     */
+    public static ItemCatalog of(Collection<Item> items) {
+        ItemCatalog catalog = new ItemCatalog(List::of, Long.MAX_VALUE);
+        catalog.snapshot = new Snapshot(new ArrayList<>(items), Long.MAX_VALUE, null);
+        return catalog;
+    }
+
+    public List<Item> findAll() {
+        return Collections.unmodifiableList(Arrays.asList(current().items));
+    }
+
+    public Item findByName(String itemName) {
+        return current().byName.get(key(itemName));
+    }
+
+    public boolean existsByName(String itemName) {
+        return findByName(itemName) != null;
+    }
+
+    /**
+     * Items whose name contains the term (case-insensitive), sorted by name
+     */
+    public List<Item> search(String searchTerm) {
+        Snapshot current = current();
+        String term = key(searchTerm);
+        if (term.isEmpty()) {
+            return findAll();
+        }
+
+        List<Item> results = new ArrayList<>();
+        if (term.length() < TrigramIndex.GRAM) {
+            for (Item item : current.items) {
+                if (nameOf(item).contains(term)) {
+                    results.add(item);
+                }
+            }
+            return results;
+        }
+
+        for (int position : current.trigrams.candidates(term)) {
+            Item item = current.items[position];
+            if (nameOf(item).contains(term)) {
+                results.add(item);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Items whose normalized name is at least threshold percent similar to itemName,
+     * with the same result as StringSimilarity.areSimilar against every item, sorted by name
+     */
+    public List<Item> findSimilar(String itemName, double threshold) {
+        Snapshot current = current();
+        String query = StringSimilarity.normalize(itemName);
+        int maxDistance = StringSimilarity.maxDistanceFor(query.length(), threshold);
+        if (maxDistance < 0) {
+            return findAll();
+        }
+
+        List<Item> results = new ArrayList<>();
+        for (BKTree.Match<Item> match : current.similarityIndex().search(query, maxDistance)) {
+            if (match.distance() == 0 || StringSimilarity.similarityPercentage(match.distance(),
+                    query.length(), match.key().length()) >= threshold) {
+                results.add(match.value());
+            }
+        }
+        results.sort(Comparator.comparing(ItemCatalog::nameOf));
+        return results;
+    }
+
+    /**
+     * Add or replace an item after it was saved
+     */
+    public synchronized void itemSaved(Item item) {
+        changes++;
+        Snapshot current = snapshot;
+        if (current == null) {
+            return; // Not loaded yet, the first load will include it
+        }
+        List<Item> items = new ArrayList<>(current.items.length + 1);
+        BKTree<Item> similarityIndex = current.builtSimilarityIndex();
+        for (Item existing : current.items) {
+            if (!Objects.equals(existing.getId(), item.getId())) {
+                items.add(existing);
+            } else if (similarityIndex != null) {
+                similarityIndex.remove(existing);
+            }
+        }
+        items.add(item);
+        if (similarityIndex != null) {
+            similarityIndex.add(StringSimilarity.normalize(item.getItemName()), item);
+        }
+        snapshot = new Snapshot(items, current.loadedAt, similarityIndex);
+    }
+
+    public synchronized void itemDeleted(Item item) {
+        changes++;
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        List<Item> items = new ArrayList<>(current.items.length);
+        BKTree<Item> similarityIndex = current.builtSimilarityIndex();
+        for (Item existing : current.items) {
+            if (!Objects.equals(existing.getId(), item.getId())) {
+                items.add(existing);
+            } else if (similarityIndex != null) {
+                similarityIndex.remove(existing);
+            }
+        }
+        snapshot = new Snapshot(items, current.loadedAt, similarityIndex);
+    }
+
+    /**
+     * Drop the cached items so the next lookup reloads them from the database
+     */
+    public synchronized void invalidate() {
+        changes++;
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        } else if (System.currentTimeMillis() - current.loadedAt > maxAgeMillis
+                && reloading.compareAndSet(false, true)) {
+            // Serve the current copy while a fresh one loads in the background
+            DAOExecutor.runAsync(() -> {
+                try {
+                    long changesBefore;
+                    synchronized (this) {
+                        changesBefore = changes;
+                    }
+                    Snapshot fresh = load();
+                    synchronized (this) {
+                        // A change made during the load may be missing from it; keep the current copy,
+                        // still stale, so the next lookup reloads again
+                        if (changes == changesBefore) {
+                            snapshot = fresh;
+                        }
+                    }
+                } finally {
+                    reloading.set(false);
+                }
+            });
+        }
+        return current;
+    }
+
+    boolean isReloading() {
+        return reloading.get();
+    }
+
+    private Snapshot load() {
+        return new Snapshot(loader.get(), System.currentTimeMillis(), null);
+    }
+
+    private static List<Item> loadItems() {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return session.createQuery("FROM Item i", Item.class).list();
+        }
+    }
+
+    private static String key(String itemName) {
+        return itemName == null ? "" : itemName.trim().toLowerCase();
+    }
+
+    private static String nameOf(Item item) {
+        return item.getItemNameLower() != null ? item.getItemNameLower() : key(item.getItemName());
+    }
+
+    /**
+     * Immutable view of the catalogue at one point in time
+     */
+    private static final class Snapshot {
+        final Item[] items;
+        final Map<String, Item> byName;
+        final TrigramIndex trigrams;
+        final long loadedAt;
+        // BK-tree over normalized names, built on first use and carried over to later snapshots
+        private BKTree<Item> similarityIndex;
+
+        Snapshot(List<Item> itemList, long loadedAt, BKTree<Item> similarityIndex) {
+            this.loadedAt = loadedAt;
+            this.similarityIndex = similarityIndex;
+            items = itemList.toArray(new Item[0]);
+            Arrays.sort(items, Comparator.comparing(ItemCatalog::nameOf));
+
+            byName = new HashMap<>(items.length * 2);
+            String[] names = new String[items.length];
+            for (int i = 0; i < items.length; i++) {
+                names[i] = nameOf(items[i]);
+                byName.put(names[i], items[i]);
+            }
+            trigrams = new TrigramIndex(names);
+        }
+
+        synchronized BKTree<Item> similarityIndex() {
+            if (similarityIndex == null) {
+                BKTree<Item> index = new BKTree<>();
+                for (Item item : items) {
+                    index.add(StringSimilarity.normalize(item.getItemName()), item);
+                }
+                similarityIndex = index;
+            }
+            return similarityIndex;
+        }
+
+        synchronized BKTree<Item> builtSimilarityIndex() {
+            return similarityIndex;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.hibernate.Session;
 import org.hibernate.Transaction;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class ItemDAO {
 
@@ -15,6 +16,7 @@ public class ItemDAO {
             transaction = session.beginTransaction();
             session.persist(item);
             transaction.commit();
+            ItemCatalog.getInstance().itemSaved(item);
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
@@ -30,49 +32,32 @@ public class ItemDAO {
     }
 
     public Item findByName(String itemName) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return session.createQuery(
-                    "FROM Item i WHERE LOWER(i.itemName) = LOWER(:name)",
-                    Item.class)
-                    .setParameter("name", itemName.trim())
-                    .uniqueResult();
-        }
+        return ItemCatalog.getInstance().findByName(itemName);
     }
 
     public boolean existsByName(String itemName) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Long count = session.createQuery(
-                    "SELECT COUNT(i) FROM Item i WHERE LOWER(i.itemName) = LOWER(:name)",
-                    Long.class)
-                    .setParameter("name", itemName.trim())
-                    .uniqueResult();
-            return count != null && count > 0;
-        }
+        return ItemCatalog.getInstance().existsByName(itemName);
     }
 
     public List<Item> findAll() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return session.createQuery("FROM Item i ORDER BY i.itemName", Item.class)
-                    .list();
-        }
+        return ItemCatalog.getInstance().findAll();
     }
 
     public List<Item> searchItems(String searchTerm) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return session.createQuery(
-                    "FROM Item i WHERE LOWER(i.itemName) LIKE LOWER(:search) ORDER BY i.itemName",
-                    Item.class)
-                    .setParameter("search", "%" + searchTerm.trim() + "%")
-                    .list();
-        }
+        return ItemCatalog.getInstance().search(searchTerm);
+    }
+
+    public CompletableFuture<List<Item>> searchItemsAsync(String searchTerm) {
+        return DAOExecutor.supplyAsync(() -> searchItems(searchTerm));
     }
 
     public void update(Item item) {
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
-            session.merge(item);
+            Item merged = session.merge(item);
             transaction.commit();
+            ItemCatalog.getInstance().itemSaved(merged);
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
@@ -82,25 +67,17 @@ public class ItemDAO {
     }
 
     public List<Item> findSimilarItems(String itemName, double similarityThreshold) {
-        // Get all items and filter by similarity
-        List<Item> allItems = findAll();
-        List<Item> similarItems = new java.util.ArrayList<>();
-
-        for (Item item : allItems) {
-            if (com.automasters.util.StringSimilarity.areSimilar(itemName, item.getItemName(), similarityThreshold)) {
-                similarItems.add(item);
-            }
-        }
-
-        return similarItems;
+        return ItemCatalog.getInstance().findSimilar(itemName, similarityThreshold);
     }
 
     public void delete(Item item) {
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
+            StockOnHandDAO.remove(session, item.getId());
             session.remove(item);
             transaction.commit();
+            ItemCatalog.getInstance().itemDeleted(item);
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
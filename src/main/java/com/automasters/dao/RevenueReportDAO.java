@@ -0,0 +1,80 @@
+package com.automasters.dao;
+
+import com.automasters.dto.RevenueReport;
+import com.automasters.entity.DailyRevenue;
+import com.automasters.util.HibernateUtil;
+import com.automasters.util.ReportPeriod;
+import org.hibernate.Session;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Revenue reports for a day, week, month, quarter or year. Daily figures come from the daily_revenue
+ * rollup; the service and vehicle breakdowns are GROUP BY queries over the period's invoice_date range.
+ */
+public class RevenueReportDAO {
+
+    private final DailyRevenueDAO dailyRevenueDAO = new DailyRevenueDAO();
+
+    /**
+     * Report for the period containing date
+     */
+    public RevenueReport buildReport(ReportPeriod period, LocalDate date) {
+        LocalDate startDate = period.startOf(date);
+        LocalDate endDate = period.endOf(date);
+
+        List<RevenueReport.DayTotal> byDay = new ArrayList<>();
+        int invoiceCount = 0;
+        int lineCount = 0;
+        double totalAmount = 0;
+        for (DailyRevenue day : dailyRevenueDAO.findByDateRange(startDate, endDate)) {
+            byDay.add(new RevenueReport.DayTotal(day.getRevenueDate(), day.getInvoiceCount(), day.getLineCount(),
+                    day.getTotalAmount()));
+            invoiceCount += day.getInvoiceCount();
+            lineCount += day.getLineCount();
+            totalAmount += day.getTotalAmount();
+        }
+
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+        return new RevenueReport(period, startDate, endDate, invoiceCount, lineCount, totalAmount, byDay,
+                findServiceTotals(start, end), findVehicleTotals(start, end));
+    }
+
+    public CompletableFuture<RevenueReport> buildReportAsync(ReportPeriod period, LocalDate date) {
+        return DAOExecutor.supplyAsync(() -> buildReport(period, date));
+    }
+
+    private List<RevenueReport.ServiceTotal> findServiceTotals(LocalDateTime start, LocalDateTime end) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return session.createQuery(
+                    "SELECT new com.automasters.dto.RevenueReport$ServiceTotal("
+                            + "it.description, COUNT(it), SUM(it.price)) "
+                            + "FROM InvoiceItem it JOIN it.invoice i "
+                            + "WHERE i.invoiceDate >= :start AND i.invoiceDate < :end "
+                            + "GROUP BY it.description ORDER BY SUM(it.price) DESC",
+                    RevenueReport.ServiceTotal.class)
+                    .setParameter("start", start)
+                    .setParameter("end", end)
+                    .list();
+        }
+    }
+
+    private List<RevenueReport.VehicleTotal> findVehicleTotals(LocalDateTime start, LocalDateTime end) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return session.createQuery(
+                    "SELECT new com.automasters.dto.RevenueReport$VehicleTotal("
+                            + "MAX(i.vehicleNumber), COUNT(i), SUM(i.totalAmount), MAX(i.invoiceDate)) "
+                            + "FROM Invoice i WHERE i.invoiceDate >= :start AND i.invoiceDate < :end "
+                            + "GROUP BY i.vehicleKey ORDER BY SUM(i.totalAmount) DESC",
+                    RevenueReport.VehicleTotal.class)
+                    .setParameter("start", start)
+                    .setParameter("end", end)
+                    .list();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.automasters.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A one-off fix-up of the database that App runs in the background once the window is up, e.g. aligning
+ * the id sequences with existing rows. The DAO writes that depend on it call {@link #await()} first, so
+ * they cannot get ahead of it.
+ */
+public class StartupTask {
+
+    private final String name;
+    private final Runnable work;
+    // Set once the task has been started; completes (even on failure) when it is done
+    private volatile CompletableFuture<Void> started;
+
+    StartupTask(String name, Runnable work) {
+        this.name = name;
+        this.work = work;
+    }
+
+    /**
+     * Run the task on executor, once. A failure is logged, as the writes waiting for it must not wait for
+     * ever; they then run against the database as it is.
+     */
+    public synchronized CompletableFuture<Void> start(Executor executor) {
+        if (started == null) {
+            started = CompletableFuture.runAsync(work, executor)
+                    .exceptionally(e -> {
+                        System.err.println(name + " failed: " + e.getMessage());
+                        return null;
+                    });
+        }
+        return started;
+    }
+
+    /**
+     * Block until the task has finished; returns at once if it was never started, e.g. in tests and tools
+     */
+    void await() {
+        CompletableFuture<Void> task = started;
+        if (task != null) {
+            task.join();
+        }
+    }
+
+    /**
+     * Forget that the task was started, for tests
+     */
+    synchronized void reset() {
+        started = null;
+    }
+}
@@ -2,19 +2,28 @@ package com.automasters.dao;
 
 import com.automasters.entity.Item;
 import com.automasters.entity.StockBatch;
+import com.automasters.entity.StockOnHand;
+import com.automasters.entity.StockTransaction;
 import com.automasters.util.HibernateUtil;
+import org.hibernate.LockMode;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class StockBatchDAO {
 
     public void save(StockBatch batch) {
+        IdSequenceDAO.ALIGNMENT.await();
+        StockOnHandDAO.FILL.await();
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
             session.persist(batch);
+            StockOnHandDAO.adjust(session, batch.getItem().getId(), batch.getQuantity());
             transaction.commit();
         } catch (Exception e) {
             if (transaction != null) {
@@ -24,6 +33,57 @@ public class StockBatchDAO {
         }
     }
 
+    /**
+     * Stock in: save the new batch, log its transaction and update stock on hand in one transaction.
+     */
+    public void receiveStock(StockBatch batch, StockTransaction stockTransaction) {
+        IdSequenceDAO.ALIGNMENT.await();
+        StockOnHandDAO.FILL.await();
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            session.persist(batch);
+            session.persist(stockTransaction);
+            StockOnHandDAO.adjust(session, batch.getItem().getId(), batch.getQuantity());
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stock out: reduce the batch, log its transaction and update stock on hand in one transaction.
+     * The batch row is locked so two terminals cannot use the same units.
+     */
+    public void issueStock(StockBatch batch, int quantityToUse, StockTransaction stockTransaction) {
+        IdSequenceDAO.ALIGNMENT.await();
+        StockOnHandDAO.FILL.await();
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            StockBatch managed = session.get(StockBatch.class, batch.getId(), LockMode.PESSIMISTIC_WRITE);
+            if (managed == null) {
+                throw new IllegalArgumentException("Stock batch no longer exists");
+            }
+            if (quantityToUse > managed.getQuantity()) {
+                throw new IllegalArgumentException("Cannot reduce more than available quantity");
+            }
+            managed.setQuantity(managed.getQuantity() - quantityToUse);
+            session.persist(stockTransaction);
+            StockOnHandDAO.adjust(session, managed.getItem().getId(), -quantityToUse);
+            transaction.commit();
+            batch.setQuantity(managed.getQuantity());
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
     public StockBatch findById(Long id) {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             return session.get(StockBatch.class, id);
@@ -52,22 +112,58 @@ public class StockBatchDAO {
 
     public Integer getTotalQuantity(Item item) {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Long total = session.createQuery(
-                    "SELECT SUM(sb.quantity) FROM StockBatch sb WHERE sb.item = :item",
-                    Long.class)
-                    .setParameter("item", item)
-                    .uniqueResult();
-            return total != null ? total.intValue() : 0;
+            StockOnHand stockOnHand = session.get(StockOnHand.class, item.getId());
+            return stockOnHand != null ? stockOnHand.getQuantity() : 0;
+        }
+    }
+
+    /**
+     * Total quantity per item id for every item that has stock, read from stock_on_hand in one query.
+     * Items that never had stock are absent from the map.
+     */
+    public Map<Long, Integer> getTotalQuantities() {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return toQuantityMap(session.createQuery("FROM StockOnHand", StockOnHand.class).list());
+        }
+    }
+
+    /**
+     * Total quantity per item id for the given items, read from stock_on_hand in one query.
+     */
+    public Map<Long, Integer> getTotalQuantities(Collection<Item> items) {
+        if (items.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<Long> itemIds = items.stream().map(Item::getId).toList();
+
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return toQuantityMap(session.createQuery(
+                    "FROM StockOnHand soh WHERE soh.itemId IN :itemIds",
+                    StockOnHand.class)
+                    .setParameter("itemIds", itemIds)
+                    .list());
         }
     }
 
+    private Map<Long, Integer> toQuantityMap(List<StockOnHand> rows) {
+        Map<Long, Integer> totals = new HashMap<>(rows.size() * 2);
+        for (StockOnHand row : rows) {
+            totals.put(row.getItemId(), row.getQuantity());
+        }
+        return totals;
+    }
+
     public void updateQuantity(StockBatch batch, int newQuantity) {
+        StockOnHandDAO.FILL.await();
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
-            batch.setQuantity(newQuantity);
-            session.merge(batch);
+            StockBatch managed = session.get(StockBatch.class, batch.getId(), LockMode.PESSIMISTIC_WRITE);
+            int delta = newQuantity - managed.getQuantity();
+            managed.setQuantity(newQuantity);
+            StockOnHandDAO.adjust(session, managed.getItem().getId(), delta);
             transaction.commit();
+            batch.setQuantity(newQuantity);
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
@@ -85,10 +181,16 @@ public class StockBatchDAO {
     }
 
     public void update(StockBatch batch) {
+        StockOnHandDAO.FILL.await();
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
+            StockBatch managed = session.get(StockBatch.class, batch.getId(), LockMode.PESSIMISTIC_WRITE);
+            Long oldItemId = managed.getItem().getId();
+            int oldQuantity = managed.getQuantity();
             session.merge(batch);
+            StockOnHandDAO.adjust(session, oldItemId, -oldQuantity);
+            StockOnHandDAO.adjust(session, batch.getItem().getId(), batch.getQuantity());
             transaction.commit();
         } catch (Exception e) {
             if (transaction != null) {
@@ -99,10 +201,13 @@ public class StockBatchDAO {
     }
 
     public void delete(StockBatch batch) {
+        StockOnHandDAO.FILL.await();
         Transaction transaction = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             transaction = session.beginTransaction();
-            session.remove(batch);
+            StockBatch managed = session.get(StockBatch.class, batch.getId(), LockMode.PESSIMISTIC_WRITE);
+            session.remove(managed);
+            StockOnHandDAO.adjust(session, managed.getItem().getId(), -managed.getQuantity());
             transaction.commit();
         } catch (Exception e) {
             if (transaction != null) {
@@ -0,0 +1,147 @@
+package com.automasters.dao;
+
+import com.automasters.entity.StockOnHand;
+import com.automasters.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the stock_on_hand table: one counter row per item holding the sum of its batch quantities.
+ * Counters are changed by StockBatchDAO in the same transaction as the batch change.
+ */
+public class StockOnHandDAO {
+
+    /**
+     * rebuildIfEmpty, run in the background at startup; StockBatchDAO writes wait for it, since a counter
+     * written first would make the table look filled
+     */
+    public static final StartupTask FILL = new StartupTask("Stock on hand fill", () -> {
+        int items = new StockOnHandDAO().rebuildIfEmpty();
+        if (items > 0) {
+            System.err.println("Filled stock on hand for " + items + " item(s)");
+        }
+    });
+
+    /**
+     * Add delta to the item's counter, creating the row if needed. Must run inside the caller's transaction.
+     */
+    static void adjust(Session session, Long itemId, int delta) {
+        session.createNativeMutationQuery(
+                "INSERT INTO stock_on_hand (item_id, quantity, last_updated) VALUES (:itemId, :delta, :now) "
+                        + "ON DUPLICATE KEY UPDATE quantity = quantity + :delta, last_updated = :now")
+                .setParameter("itemId", itemId)
+                .setParameter("delta", delta)
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    static void remove(Session session, Long itemId) {
+        session.createMutationQuery("DELETE FROM StockOnHand soh WHERE soh.itemId = :itemId")
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
+
+    /**
+     * Item id -> quantity computed from stock_batches, i.e. what the counters should hold.
+     */
+    public Map<Long, Integer> calculateFromBatches() {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            List<Object[]> rows = session.createQuery(
+                    "SELECT sb.item.id, SUM(sb.quantity) FROM StockBatch sb GROUP BY sb.item.id",
+                    Object[].class)
+                    .list();
+            Map<Long, Integer> totals = new HashMap<>(rows.size() * 2);
+            for (Object[] row : rows) {
+                totals.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Compare the counters with stock_batches.
+     * Returns item id -> expected quantity for every item whose counter is wrong or missing.
+     */
+    public Map<Long, Integer> verify() {
+        Map<Long, Integer> expected = calculateFromBatches();
+        Map<Long, Integer> actual = new HashMap<>();
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            for (StockOnHand row : session.createQuery("FROM StockOnHand", StockOnHand.class).list()) {
+                actual.put(row.getItemId(), row.getQuantity());
+            }
+        }
+
+        Map<Long, Integer> mismatches = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            if (!entry.getValue().equals(actual.get(entry.getKey()))) {
+                mismatches.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : actual.entrySet()) {
+            if (!expected.containsKey(entry.getKey()) && entry.getValue() != 0) {
+                mismatches.put(entry.getKey(), 0);
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Recreate every counter from stock_batches in one transaction. Returns the number of items with a counter.
+     */
+    public int rebuild() {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM StockOnHand").executeUpdate();
+            int items = session.createNativeMutationQuery(
+                    "INSERT INTO stock_on_hand (item_id, quantity, last_updated) "
+                            + "SELECT item_id, SUM(quantity), :now FROM stock_batches GROUP BY item_id")
+                    .setParameter("now", LocalDateTime.now())
+                    .executeUpdate();
+            transaction.commit();
+            return items;
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Build the counters if the table is still empty but stock batches exist, i.e. on the first start after
+     * the table was added. Returns the number of items filled in.
+     */
+    public int rebuildIfEmpty() {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            boolean hasRows = !session.createQuery("SELECT soh.itemId FROM StockOnHand soh", Long.class)
+                    .setMaxResults(1)
+                    .list()
+                    .isEmpty();
+            boolean hasBatches = !session.createQuery("SELECT sb.id FROM StockBatch sb", Long.class)
+                    .setMaxResults(1)
+                    .list()
+                    .isEmpty();
+            if (hasRows || !hasBatches) {
+                return 0;
+            }
+        }
+        return rebuild();
+    }
+
+    /**
+     * Verify the counters and rebuild them if any are wrong. Returns the number of items that were wrong.
+     */
+    public int reconcile() {
+        Map<Long, Integer> mismatches = verify();
+        if (!mismatches.isEmpty()) {
+            rebuild();
+        }
+        return mismatches.size();
+    }
+}
@@ -1,17 +1,21 @@
 package com.automasters.dao;
 
+import com.automasters.dto.TransactionRow;
 import com.automasters.entity.Item;
 import com.automasters.entity.StockTransaction;
 import com.automasters.util.HibernateUtil;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.query.Query;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class StockTransactionDAO {
 
     public void save(StockTransaction transaction) {
+        IdSequenceDAO.ALIGNMENT.await();
         Transaction tx = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             tx = session.beginTransaction();
@@ -28,7 +32,7 @@ public class StockTransactionDAO {
     public List<StockTransaction> findAll() {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             return session.createQuery(
-                    "FROM StockTransaction st ORDER BY st.transactionDate DESC",
+                    "FROM StockTransaction st JOIN FETCH st.item ORDER BY st.transactionDate DESC",
                     StockTransaction.class)
                     .list();
         }
@@ -37,7 +41,7 @@ public class StockTransactionDAO {
     public List<StockTransaction> findByItem(Item item) {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             return session.createQuery(
-                    "FROM StockTransaction st WHERE st.item = :item ORDER BY st.transactionDate DESC",
+                    "FROM StockTransaction st JOIN FETCH st.item WHERE st.item = :item ORDER BY st.transactionDate DESC",
                     StockTransaction.class)
                     .setParameter("item", item)
                     .list();
@@ -47,7 +51,7 @@ public class StockTransactionDAO {
     public List<StockTransaction> findByType(String transactionType) {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             return session.createQuery(
-                    "FROM StockTransaction st WHERE st.transactionType = :type ORDER BY st.transactionDate DESC",
+                    "FROM StockTransaction st JOIN FETCH st.item WHERE st.transactionType = :type ORDER BY st.transactionDate DESC",
                     StockTransaction.class)
                     .setParameter("type", transactionType)
                     .list();
@@ -57,7 +61,7 @@ public class StockTransactionDAO {
     public List<StockTransaction> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             return session.createQuery(
-                    "FROM StockTransaction st WHERE st.transactionDate BETWEEN :start AND :end ORDER BY st.transactionDate DESC",
+                    "FROM StockTransaction st JOIN FETCH st.item WHERE st.transactionDate BETWEEN :start AND :end ORDER BY st.transactionDate DESC",
                     StockTransaction.class)
                     .setParameter("start", startDate)
                     .setParameter("end", endDate)
@@ -68,11 +72,55 @@ public class StockTransactionDAO {
     public List<StockTransaction> findByItemAndType(Item item, String transactionType) {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             return session.createQuery(
-                    "FROM StockTransaction st WHERE st.item = :item AND st.transactionType = :type ORDER BY st.transactionDate DESC",
+                    "FROM StockTransaction st JOIN FETCH st.item WHERE st.item = :item AND st.transactionType = :type ORDER BY st.transactionDate DESC",
                     StockTransaction.class)
                     .setParameter("item", item)
                     .setParameter("type", transactionType)
                     .list();
         }
     }
+
+    /**
+     * One page of rows for the stock history table, newest first, ordered by (transactionDate, id).
+     * Pass the last row of the previous page as after (null for the first page); the page starts
+     * right below it, so each page costs the same however deep it is. A null item or type means any.
+     */
+    public List<TransactionRow> findRowsPage(Item item, String transactionType, TransactionRow after, int limit) {
+        StringBuilder hql = new StringBuilder("SELECT new com.automasters.dto.TransactionRow("
+                + "st.id, st.transactionDate, i.itemName, st.transactionType, st.quantity, "
+                + "st.buyPrice, st.sellPrice, st.batchReference) "
+                // Left join keeps stock_transactions as the driving table, read in index order
+                + "FROM StockTransaction st LEFT JOIN st.item i WHERE 1 = 1");
+        if (item != null) {
+            hql.append(" AND st.item.id = :itemId");
+        }
+        if (transactionType != null) {
+            hql.append(" AND st.transactionType = :type");
+        }
+        if (after != null) {
+            hql.append(" AND (st.transactionDate < :afterDate"
+                    + " OR (st.transactionDate = :afterDate AND st.id < :afterId))");
+        }
+        hql.append(" ORDER BY st.transactionDate DESC, st.id DESC");
+
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            Query<TransactionRow> query = session.createQuery(hql.toString(), TransactionRow.class);
+            if (item != null) {
+                query.setParameter("itemId", item.getId());
+            }
+            if (transactionType != null) {
+                query.setParameter("type", transactionType);
+            }
+            if (after != null) {
+                query.setParameter("afterDate", after.transactionDate());
+                query.setParameter("afterId", after.id());
+            }
+            return query.setMaxResults(limit).list();
+        }
+    }
+
+    public CompletableFuture<List<TransactionRow>> findRowsPageAsync(Item item, String transactionType,
+            TransactionRow after, int limit) {
+        return DAOExecutor.supplyAsync(() -> findRowsPage(item, transactionType, after, limit));
+    }
 }
@@ -0,0 +1,193 @@
+package com.automasters.dao;
+
+import com.automasters.util.HibernateUtil;
+import com.automasters.util.TrigramIndex;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Process-wide in-memory set of the distinct vehicle keys on invoices (see Invoice.toVehicleKey),
+ * with a trigram index so a search term found anywhere in a vehicle number ("1234" in "WPCAB1234")
+ * resolves to exact keys that the vehicle_key index can look up.
+ * Keys are never removed. InvoiceDAO adds keys as invoices are saved; keys saved from other
+ * terminals are picked up in the background once the set is older than REFRESH_INTERVAL, from
+ * invoices dated after the last check (less SAVE_MARGIN). An invoice dated earlier than that, e.g.
+ * by a terminal whose clock is behind, is picked up by a full reload every FULL_RELOAD_INTERVAL.
+ * Searches never wait for a refresh, only for the very first load.
+ */
+public class VehicleKeyIndex {
+
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(10);
+    private static final Duration FULL_RELOAD_INTERVAL = Duration.ofMinutes(5);
+    // Invoices are dated when the form is filled in, which may be a while before they are saved
+    private static final Duration SAVE_MARGIN = Duration.ofMinutes(30);
+
+    private static final VehicleKeyIndex instance = new VehicleKeyIndex();
+
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // Keys saved while there was no snapshot, added to the one being loaded
+    private final List<String> savedDuringLoad = new ArrayList<>();
+
+    public static VehicleKeyIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Known vehicle keys containing the given key, in key order. Stops after limit + 1 keys, so a
+     * caller can tell that the term matches more than limit keys without collecting them all.
+     */
+    public List<String> keysContaining(String key, int limit) {
+        Snapshot current = current();
+        List<String> results = new ArrayList<>();
+        if (key.length() < TrigramIndex.GRAM) {
+            for (String candidate : current.keys) {
+                if (candidate.contains(key)) {
+                    results.add(candidate);
+                    if (results.size() > limit) {
+                        break;
+                    }
+                }
+            }
+            return results;
+        }
+
+        for (int position : current.trigrams.candidates(key)) {
+            if (current.keys[position].contains(key)) {
+                results.add(current.keys[position]);
+                if (results.size() > limit) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    public synchronized void keySaved(String key) {
+        if (key == null) {
+            return;
+        }
+        if (snapshot != null) {
+            snapshot = snapshot.with(List.of(key), snapshot.checkedAt, snapshot.fullyLoadedAt);
+        } else {
+            savedDuringLoad.add(key);
+        }
+    }
+
+    /**
+     * Drop the cached keys so the next search reloads them from the database
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // First search: load every key without holding the lock, so keySaved never waits for it
+            LocalDateTime now = LocalDateTime.now();
+            List<String> keys = new ArrayList<>(loadKeys(null));
+            synchronized (this) {
+                if (snapshot == null) {
+                    keys.addAll(savedDuringLoad);
+                    savedDuringLoad.clear();
+                    snapshot = new Snapshot(keys, now, now);
+                }
+                return snapshot;
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (current.checkedAt.plus(REFRESH_INTERVAL).isBefore(now) && refreshing.compareAndSet(false, true)) {
+            // Serve the current keys while newer ones load in the background
+            DAOExecutor.runAsync(() -> {
+                try {
+                    refresh(current, now);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+        return current;
+    }
+
+    private void refresh(Snapshot checked, LocalDateTime now) {
+        boolean full = checked.fullyLoadedAt.plus(FULL_RELOAD_INTERVAL).isBefore(now);
+        List<String> keys = loadKeys(full ? null : checked.checkedAt.minus(SAVE_MARGIN));
+        synchronized (this) {
+            // Keys are only ever added, so merging into the latest snapshot loses nothing saved meanwhile
+            if (snapshot != null) {
+                snapshot = snapshot.with(keys, now, full ? now : snapshot.fullyLoadedAt);
+            }
+        }
+    }
+
+    /**
+     * Distinct keys of all invoices, or of those dated from the given time (an invoice_date range)
+     */
+    private List<String> loadKeys(LocalDateTime since) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            if (since == null) {
+                // Read from the vehicle_key index alone
+                return session.createQuery(
+                        "SELECT DISTINCT i.vehicleKey FROM Invoice i WHERE i.vehicleKey IS NOT NULL", String.class)
+                        .list();
+            }
+            Query<String> query = session.createQuery(
+                    "SELECT DISTINCT i.vehicleKey FROM Invoice i "
+                            + "WHERE i.invoiceDate >= :since AND i.vehicleKey IS NOT NULL",
+                    String.class);
+            return query.setParameter("since", since).list();
+        }
+    }
+
+    /**
+     * Immutable view of the keys at one point in time
+     */
+    private static final class Snapshot {
+        final String[] keys;
+        final TrigramIndex trigrams;
+        final LocalDateTime checkedAt;
+        final LocalDateTime fullyLoadedAt;
+
+        Snapshot(List<String> keyList, LocalDateTime checkedAt, LocalDateTime fullyLoadedAt) {
+            this(new TreeSet<>(keyList).toArray(new String[0]), checkedAt, fullyLoadedAt);
+        }
+
+        private Snapshot(String[] sortedKeys, LocalDateTime checkedAt, LocalDateTime fullyLoadedAt) {
+            this.keys = sortedKeys;
+            this.trigrams = new TrigramIndex(sortedKeys);
+            this.checkedAt = checkedAt;
+            this.fullyLoadedAt = fullyLoadedAt;
+        }
+
+        private Snapshot(Snapshot keysOf, LocalDateTime checkedAt, LocalDateTime fullyLoadedAt) {
+            this.keys = keysOf.keys;
+            this.trigrams = keysOf.trigrams;
+            this.checkedAt = checkedAt;
+            this.fullyLoadedAt = fullyLoadedAt;
+        }
+
+        /**
+         * This snapshot plus the given keys; the indexes are only rebuilt if one of them is new
+         */
+        Snapshot with(List<String> added, LocalDateTime checkedAt, LocalDateTime fullyLoadedAt) {
+            for (String key : added) {
+                if (Arrays.binarySearch(keys, key) < 0) {
+                    List<String> merged = new ArrayList<>(Arrays.asList(keys));
+                    merged.addAll(added);
+                    return new Snapshot(merged, checkedAt, fullyLoadedAt);
+                }
+            }
+            return new Snapshot(this, checkedAt, fullyLoadedAt);
+        }
+    }
+}
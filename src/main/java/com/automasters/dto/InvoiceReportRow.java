@@ -0,0 +1,11 @@
+package com.automasters.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One invoice as listed in PDF reports: its first service and how many services it has.
+ * Produced by InvoiceDAO.streamReportRows.
+ */
+public record InvoiceReportRow(String invoiceNumber, LocalDateTime invoiceDate, String customerName,
+        String vehicleNumber, double totalAmount, String firstService, int serviceCount) {
+}
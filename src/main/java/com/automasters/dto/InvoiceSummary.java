@@ -0,0 +1,11 @@
+package com.automasters.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One invoice as shown in list screens, without its line items.
+ * Filled directly by "SELECT new ..." queries in InvoiceDAO.
+ */
+public record InvoiceSummary(Long id, String invoiceNumber, LocalDateTime invoiceDate, String customerName,
+        String contactNumber, String vehicleNumber, Integer currentMileage, double totalAmount) {
+}
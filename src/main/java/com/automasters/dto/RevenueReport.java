@@ -0,0 +1,35 @@
+package com.automasters.dto;
+
+import com.automasters.util.ReportPeriod;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Revenue for a range of days with breakdowns by day, by service description and by vehicle.
+ * Built by RevenueReportDAO from aggregate queries; no invoices are loaded.
+ */
+public record RevenueReport(ReportPeriod period, LocalDate startDate, LocalDate endDate, int invoiceCount,
+        int lineCount, double totalAmount, List<DayTotal> byDay, List<ServiceTotal> byService,
+        List<VehicleTotal> byVehicle) {
+
+    /**
+     * Days with invoices only, oldest first
+     */
+    public record DayTotal(LocalDate date, int invoiceCount, int lineCount, double totalAmount) {
+    }
+
+    /**
+     * Invoice lines with the same description, highest total first
+     */
+    public record ServiceTotal(String description, long lineCount, double totalAmount) {
+    }
+
+    /**
+     * Invoices of one vehicle (by vehicle key), highest total first
+     */
+    public record VehicleTotal(String vehicleNumber, long invoiceCount, double totalAmount,
+            LocalDateTime lastVisit) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.automasters.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stock transaction as shown in the stock history table, with the item name joined in.
+ * Filled directly by "SELECT new ..." queries in StockTransactionDAO.
+ */
+public record TransactionRow(Long id, LocalDateTime transactionDate, String itemName, String transactionType,
+        Integer quantity, Double buyPrice, Double sellPrice, String batchReference) {
+}
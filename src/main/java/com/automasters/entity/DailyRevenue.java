@@ -0,0 +1,82 @@
+package com.automasters.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Invoice totals per day, kept in step with invoices by InvoiceDAO.
+ */
+@Entity
+@Table(name = "daily_revenue")
+public class DailyRevenue {
+
+    @Id
+    @Column(name = "revenue_date")
+    private LocalDate revenueDate;
+
+    @Column(name = "invoice_count", nullable = false)
+    private Integer invoiceCount;
+
+    @Column(name = "line_count", nullable = false)
+    private Integer lineCount;
+
+    @Column(name = "total_amount", nullable = false)
+    private double totalAmount;
+
+    @Column(name = "last_updated", nullable = false)
+    private LocalDateTime lastUpdated;
+
+    public DailyRevenue() {
+        this.lastUpdated = LocalDateTime.now();
+    }
+
+    public DailyRevenue(LocalDate revenueDate, Integer invoiceCount, Integer lineCount, double totalAmount) {
+        this.revenueDate = revenueDate;
+        this.invoiceCount = invoiceCount;
+        this.lineCount = lineCount;
+        this.totalAmount = totalAmount;
+        this.lastUpdated = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public LocalDate getRevenueDate() {
+        return revenueDate;
+    }
+
+    public void setRevenueDate(LocalDate revenueDate) {
+        this.revenueDate = revenueDate;
+    }
+
+    public Integer getInvoiceCount() {
+        return invoiceCount;
+    }
+
+    public void setInvoiceCount(Integer invoiceCount) {
+        this.invoiceCount = invoiceCount;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(Integer lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(double totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(LocalDateTime lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -6,11 +6,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_invoice_date", columnList = "invoice_date"),
+        // Vehicle history, newest first
+        @Index(name = "idx_invoices_vehicle_key_date", columnList = "vehicle_key, invoice_date")
+})
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoices_seq")
+    @SequenceGenerator(name = "invoices_seq", sequenceName = "invoices_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "invoice_number", unique = true, nullable = false)
@@ -28,13 +33,17 @@ public class Invoice {
     @Column(name = "vehicle_number", nullable = false)
     private String vehicleNumber;
 
+    // Vehicle number reduced to upper-case letters and digits, for searching
+    @Column(name = "vehicle_key")
+    private String vehicleKey;
+
     @Column(name = "current_mileage")
     private Integer currentMileage;
 
     @Column(name = "total_amount", nullable = false)
     private double totalAmount;
 
-    @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<InvoiceItem> items = new ArrayList<>();
 
     public Invoice() {
@@ -52,6 +61,30 @@ public class Invoice {
         this.totalAmount = 0.0;
     }
 
+    /**
+     * Search key for a vehicle number: upper-case letters and digits only,
+     * so "WP CAB-1234" and "wpcab1234" both become "WPCAB1234"
+     */
+    public static String toVehicleKey(String vehicleNumber) {
+        if (vehicleNumber == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(vehicleNumber.length());
+        for (int i = 0; i < vehicleNumber.length(); i++) {
+            char c = vehicleNumber.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void updateVehicleKey() {
+        this.vehicleKey = toVehicleKey(vehicleNumber);
+    }
+
     public void addItem(InvoiceItem item) {
         items.add(item);
         item.setInvoice(this);
@@ -119,6 +152,10 @@ public class Invoice {
         this.vehicleNumber = vehicleNumber;
     }
 
+    public String getVehicleKey() {
+        return vehicleKey;
+    }
+
     public Integer getCurrentMileage() {
         return currentMileage;
     }
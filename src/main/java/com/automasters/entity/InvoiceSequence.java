@@ -0,0 +1,45 @@
+package com.automasters.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Counter row used to hand out invoice numbers. Locked for update while an invoice is saved.
+ */
+@Entity
+@Table(name = "invoice_sequence")
+public class InvoiceSequence {
+
+    public static final String INVOICE = "INVOICE";
+
+    @Id
+    @Column(name = "sequence_name", length = 50)
+    private String name;
+
+    @Column(name = "last_number", nullable = false)
+    private long lastNumber;
+
+    public InvoiceSequence() {
+    }
+
+    public InvoiceSequence(String name, long lastNumber) {
+        this.name = name;
+        this.lastNumber = lastNumber;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getLastNumber() {
+        return lastNumber;
+    }
+
+    public void setLastNumber(long lastNumber) {
+        this.lastNumber = lastNumber;
+    }
+}
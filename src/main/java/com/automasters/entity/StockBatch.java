@@ -4,14 +4,18 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_batches")
+@Table(name = "stock_batches", indexes = {
+        // Batches of an item, optionally only those with stock left, oldest first
+        @Index(name = "idx_stock_batches_item_quantity_date", columnList = "item_id, quantity, batch_date")
+})
 public class StockBatch {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_batches_seq")
+    @SequenceGenerator(name = "stock_batches_seq", sequenceName = "stock_batches_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
 
@@ -0,0 +1,57 @@
+package com.automasters.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Current stock per item, kept in step with stock_batches by StockBatchDAO.
+ */
+@Entity
+@Table(name = "stock_on_hand")
+public class StockOnHand {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "last_updated", nullable = false)
+    private LocalDateTime lastUpdated;
+
+    public StockOnHand() {
+        this.lastUpdated = LocalDateTime.now();
+    }
+
+    public StockOnHand(Long itemId, Integer quantity) {
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.lastUpdated = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(LocalDateTime lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -4,14 +4,23 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_transactions")
+@Table(name = "stock_transactions", indexes = {
+        // Stock history filtered by item and/or type, newest first, paged on (transaction_date, id).
+        // Filter columns come first, then the sort columns, so each filter combination reads in order
+        @Index(name = "idx_stock_transactions_item_date", columnList = "item_id, transaction_date DESC, id DESC"),
+        @Index(name = "idx_stock_transactions_item_type_date",
+                columnList = "item_id, transaction_type, transaction_date DESC, id DESC"),
+        @Index(name = "idx_stock_transactions_type_date", columnList = "transaction_type, transaction_date DESC, id DESC"),
+        @Index(name = "idx_stock_transactions_date", columnList = "transaction_date DESC, id DESC")
+})
 public class StockTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_transactions_seq")
+    @SequenceGenerator(name = "stock_transactions_seq", sequenceName = "stock_transactions_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
 
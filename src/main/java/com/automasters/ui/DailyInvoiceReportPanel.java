@@ -1,8 +1,13 @@
 package com.automasters.ui;
 
 import com.automasters.dao.InvoiceDAO;
+import com.automasters.dao.RevenueReportDAO;
+import com.automasters.dto.InvoiceReportRow;
+import com.automasters.dto.InvoiceSummary;
+import com.automasters.dto.RevenueReport;
 import com.automasters.entity.Invoice;
 import com.automasters.util.PDFReportGenerator;
+import com.automasters.util.ReportPeriod;
 import com.toedter.calendar.JDateChooser;
 
 import javax.swing.*;
@@ -13,20 +18,47 @@ import java.io.File;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class DailyInvoiceReportPanel extends JPanel {
 
+    private static final String[] INVOICE_COLUMNS = { "Invoice #", "Time", "Customer", "Vehicle", "Amount (LKR)" };
+    private static final String[] DAY_COLUMNS = { "Date", "Invoices", "Lines", "Amount (LKR)" };
+
     private final InvoiceDAO invoiceDAO;
+    private final RevenueReportDAO reportDAO;
+    private JComboBox<ReportPeriod> periodComboBox;
     private JDateChooser dateChooser;
+    private JTabbedPane tabbedPane;
     private JTable invoiceTable;
     private DefaultTableModel tableModel;
+    private DefaultTableModel serviceTableModel;
+    private DefaultTableModel vehicleTableModel;
     private JLabel totalIncomeLabel;
+    private JLabel invoiceCountLabel;
     private JButton exportButton;
+    private JButton exportDaysButton;
+    private JButton printDayButton;
+    private JProgressBar exportProgressBar;
+    private JLabel exportStatusLabel;
+    private JButton cancelExportButton;
+    // Exports started since the queue was last idle
+    private final List<ReportExportQueue.Job> exportJobs = new ArrayList<>();
+    // Finished exports whose outcome has been shown; progress updates may still arrive for them
+    private final Set<ReportExportQueue.Job> reportedJobs = new HashSet<>();
+    private final LatestRequest refreshRequest = new LatestRequest();
+    private final LatestRequest printRequest = new LatestRequest();
 
     public DailyInvoiceReportPanel() {
         this.invoiceDAO = new InvoiceDAO();
+        this.reportDAO = new RevenueReportDAO();
         setLayout(new BorderLayout(20, 20));
         setBackground(new Color(245, 247, 250));
         setBorder(BorderFactory.createEmptyBorder(20, 30, 30, 30));
@@ -65,6 +97,16 @@ public class DailyInvoiceReportPanel extends JPanel {
                 BorderFactory.createEmptyBorder(20, 20, 20, 20)));
         sidebar.setPreferredSize(new Dimension(300, 0));
 
+        // Period Section
+        JLabel periodLabel = new JLabel("Report Period");
+        periodLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        periodLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        periodComboBox = new JComboBox<>(ReportPeriod.values());
+        periodComboBox.setMaximumSize(new Dimension(250, 35));
+        periodComboBox.setAlignmentX(Component.LEFT_ALIGNMENT);
+        periodComboBox.addActionListener(e -> refreshData());
+
         // Date Filter Section
         JLabel filterLabel = new JLabel("Select Date");
         filterLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
@@ -85,7 +127,7 @@ public class DailyInvoiceReportPanel extends JPanel {
         summaryPanel.setLayout(new BoxLayout(summaryPanel, BoxLayout.Y_AXIS));
         summaryPanel.setBackground(new Color(241, 245, 249));
         summaryPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
-        summaryPanel.setMaximumSize(new Dimension(250, 100));
+        summaryPanel.setMaximumSize(new Dimension(250, 120));
         summaryPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
         JLabel summaryTitle = new JLabel("Total Income");
@@ -96,9 +138,15 @@ public class DailyInvoiceReportPanel extends JPanel {
         totalIncomeLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
         totalIncomeLabel.setForeground(new Color(15, 23, 42));
 
+        invoiceCountLabel = new JLabel("0 invoices");
+        invoiceCountLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        invoiceCountLabel.setForeground(new Color(100, 116, 139));
+
         summaryPanel.add(summaryTitle);
         summaryPanel.add(Box.createVerticalStrut(5));
         summaryPanel.add(totalIncomeLabel);
+        summaryPanel.add(Box.createVerticalStrut(5));
+        summaryPanel.add(invoiceCountLabel);
 
         // Export Button
         exportButton = new JButton("Export PDF Report");
@@ -110,13 +158,60 @@ public class DailyInvoiceReportPanel extends JPanel {
         exportButton.setMaximumSize(new Dimension(250, 40));
         exportButton.addActionListener(e -> exportPDF());
 
+        exportDaysButton = new JButton("Export Each Day");
+        exportDaysButton.setFocusPainted(false);
+        exportDaysButton.setAlignmentX(Component.LEFT_ALIGNMENT);
+        exportDaysButton.setMaximumSize(new Dimension(250, 35));
+        exportDaysButton.setToolTipText("Save a daily report for every day of the selected period");
+        exportDaysButton.addActionListener(e -> exportEachDay());
+
+        printDayButton = new JButton("Print Day's Receipts");
+        printDayButton.setFocusPainted(false);
+        printDayButton.setAlignmentX(Component.LEFT_ALIGNMENT);
+        printDayButton.setMaximumSize(new Dimension(250, 35));
+        printDayButton.setToolTipText("Reprint every receipt of the selected date as one print job");
+        printDayButton.addActionListener(e -> printDayReceipts());
+
+        // Export progress, shown while exports are queued or running
+        exportStatusLabel = new JLabel(" ");
+        exportStatusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        exportStatusLabel.setForeground(new Color(100, 116, 139));
+        exportStatusLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        exportProgressBar = new JProgressBar(0, 100);
+        exportProgressBar.setStringPainted(true);
+        exportProgressBar.setAlignmentX(Component.LEFT_ALIGNMENT);
+        exportProgressBar.setMaximumSize(new Dimension(250, 20));
+        exportProgressBar.setVisible(false);
+
+        cancelExportButton = new JButton("Cancel Export");
+        cancelExportButton.setFocusPainted(false);
+        cancelExportButton.setAlignmentX(Component.LEFT_ALIGNMENT);
+        cancelExportButton.setMaximumSize(new Dimension(250, 30));
+        cancelExportButton.setVisible(false);
+        cancelExportButton.addActionListener(e -> cancelExports());
+
         // Add components to sidebar
+        sidebar.add(periodLabel);
+        sidebar.add(Box.createVerticalStrut(10));
+        sidebar.add(periodComboBox);
+        sidebar.add(Box.createVerticalStrut(20));
         sidebar.add(filterLabel);
         sidebar.add(Box.createVerticalStrut(10));
         sidebar.add(dateChooser);
         sidebar.add(Box.createVerticalStrut(30));
         sidebar.add(summaryPanel);
         sidebar.add(Box.createVerticalGlue()); // Push export button to bottom
+        sidebar.add(exportStatusLabel);
+        sidebar.add(Box.createVerticalStrut(5));
+        sidebar.add(exportProgressBar);
+        sidebar.add(Box.createVerticalStrut(5));
+        sidebar.add(cancelExportButton);
+        sidebar.add(Box.createVerticalStrut(10));
+        sidebar.add(printDayButton);
+        sidebar.add(Box.createVerticalStrut(10));
+        sidebar.add(exportDaysButton);
+        sidebar.add(Box.createVerticalStrut(10));
         sidebar.add(exportButton);
 
         return sidebar;
@@ -127,33 +222,53 @@ public class DailyInvoiceReportPanel extends JPanel {
         tablePanel.setBackground(Color.WHITE);
         tablePanel.setBorder(BorderFactory.createLineBorder(new Color(226, 232, 240)));
 
-        String[] columnNames = { "Invoice #", "Time", "Customer", "Vehicle", "Amount (LKR)" };
-        tableModel = new DefaultTableModel(columnNames, 0) {
+        tableModel = createTableModel(INVOICE_COLUMNS);
+        invoiceTable = createTable(tableModel);
+        serviceTableModel = createTableModel(new String[] { "Service", "Lines", "Amount (LKR)" });
+        vehicleTableModel = createTableModel(new String[] { "Vehicle", "Invoices", "Last Visit", "Amount (LKR)" });
+
+        tabbedPane = new JTabbedPane();
+        tabbedPane.addTab("Invoices", createScrollPane(invoiceTable));
+        tabbedPane.addTab("By Service", createScrollPane(createTable(serviceTableModel)));
+        tabbedPane.addTab("By Vehicle", createScrollPane(createTable(vehicleTableModel)));
+
+        tablePanel.add(tabbedPane, BorderLayout.CENTER);
+        return tablePanel;
+    }
+
+    private DefaultTableModel createTableModel(String[] columnNames) {
+        return new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
                 return false;
             }
         };
+    }
 
-        invoiceTable = new JTable(tableModel);
-        invoiceTable.setRowHeight(35);
-        invoiceTable.setShowVerticalLines(false);
-        invoiceTable.setIntercellSpacing(new Dimension(0, 0));
-        invoiceTable.getTableHeader().setBackground(new Color(248, 250, 252));
-        invoiceTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
-        invoiceTable.getTableHeader().setBorder(BorderFactory.createEmptyBorder());
+    private JTable createTable(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setRowHeight(35);
+        table.setShowVerticalLines(false);
+        table.setIntercellSpacing(new Dimension(0, 0));
+        table.getTableHeader().setBackground(new Color(248, 250, 252));
+        table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
+        table.getTableHeader().setBorder(BorderFactory.createEmptyBorder());
+        alignAmountColumn(table);
+        return table;
+    }
 
-        // Right align amount column
+    // Right align the amount column, which is always the last one
+    private void alignAmountColumn(JTable table) {
         DefaultTableCellRenderer rightRenderer = new DefaultTableCellRenderer();
         rightRenderer.setHorizontalAlignment(JLabel.RIGHT);
-        invoiceTable.getColumnModel().getColumn(4).setCellRenderer(rightRenderer);
+        table.getColumnModel().getColumn(table.getColumnCount() - 1).setCellRenderer(rightRenderer);
+    }
 
-        JScrollPane scrollPane = new JScrollPane(invoiceTable);
+    private JScrollPane createScrollPane(JTable table) {
+        JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
         scrollPane.getViewport().setBackground(Color.WHITE);
-
-        tablePanel.add(scrollPane, BorderLayout.CENTER);
-        return tablePanel;
+        return scrollPane;
     }
 
     public void refreshData() {
@@ -161,27 +276,83 @@ public class DailyInvoiceReportPanel extends JPanel {
         if (selectedDate == null)
             return;
 
+        ReportPeriod period = (ReportPeriod) periodComboBox.getSelectedItem();
         LocalDate date = selectedDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        List<Invoice> invoices = invoiceDAO.findByDateRange(date);
-        double totalIncome = invoiceDAO.calculateTotalIncome(date);
+        CompletableFuture<RevenueReport> reportFuture = reportDAO.buildReportAsync(period, date);
+        // A single day lists its invoices; longer periods list their days
+        CompletableFuture<List<InvoiceSummary>> invoicesFuture = period == ReportPeriod.DAY
+                ? invoiceDAO.findSummariesByDateRangeAsync(date)
+                : CompletableFuture.completedFuture(List.of());
+
+        refreshRequest.submit(LatestRequest.combine(reportFuture, invoicesFuture, ReportData::new),
+                data -> showData(data.report(), data.invoices()),
+                e -> JOptionPane.showMessageDialog(this, "Error loading report: " + e.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    private record ReportData(RevenueReport report, List<InvoiceSummary> invoices) {
+    }
 
-        // Update Table
+    private void showData(RevenueReport report, List<InvoiceSummary> invoices) {
+        // Update main table
         tableModel.setRowCount(0);
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+        if (report.period() == ReportPeriod.DAY) {
+            setMainColumns("Invoices", INVOICE_COLUMNS);
+            DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+            for (InvoiceSummary inv : invoices) {
+                Object[] row = {
+                        inv.invoiceNumber(),
+                        inv.invoiceDate().format(timeFormatter),
+                        inv.customerName(),
+                        inv.vehicleNumber(),
+                        String.format("%.2f", inv.totalAmount())
+                };
+                tableModel.addRow(row);
+            }
+        } else {
+            setMainColumns("By Day", DAY_COLUMNS);
+            DateTimeFormatter dayFormatter = DateTimeFormatter.ofPattern("EEE, yyyy-MM-dd");
+            for (RevenueReport.DayTotal day : report.byDay()) {
+                tableModel.addRow(new Object[] {
+                        day.date().format(dayFormatter),
+                        day.invoiceCount(),
+                        day.lineCount(),
+                        String.format("%.2f", day.totalAmount())
+                });
+            }
+        }
 
-        for (Invoice inv : invoices) {
-            Object[] row = {
-                    inv.getInvoiceNumber(),
-                    inv.getInvoiceDate().format(timeFormatter),
-                    inv.getCustomerName(),
-                    inv.getVehicleNumber(),
-                    String.format("%.2f", inv.getTotalAmount())
-            };
-            tableModel.addRow(row);
+        // Update breakdowns
+        serviceTableModel.setRowCount(0);
+        for (RevenueReport.ServiceTotal service : report.byService()) {
+            serviceTableModel.addRow(new Object[] {
+                    service.description(),
+                    service.lineCount(),
+                    String.format("%.2f", service.totalAmount())
+            });
+        }
+        vehicleTableModel.setRowCount(0);
+        DateTimeFormatter visitFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        for (RevenueReport.VehicleTotal vehicle : report.byVehicle()) {
+            vehicleTableModel.addRow(new Object[] {
+                    vehicle.vehicleNumber(),
+                    vehicle.invoiceCount(),
+                    vehicle.lastVisit().format(visitFormatter),
+                    String.format("%.2f", vehicle.totalAmount())
+            });
         }
 
-        // Update Total Label
-        totalIncomeLabel.setText(String.format("LKR %.2f", totalIncome));
+        // Update Total Labels
+        totalIncomeLabel.setText(String.format("LKR %.2f", report.totalAmount()));
+        invoiceCountLabel.setText(report.invoiceCount() + " invoices, " + report.period().describe(report.startDate()));
+    }
+
+    private void setMainColumns(String title, String[] columns) {
+        tabbedPane.setTitleAt(0, title);
+        if (tableModel.getColumnCount() != columns.length) {
+            tableModel.setColumnIdentifiers(columns);
+            alignAmountColumn(invoiceTable);
+        }
     }
 
     private void exportPDF() {
@@ -191,36 +362,167 @@ public class DailyInvoiceReportPanel extends JPanel {
             return;
         }
 
+        ReportPeriod period = (ReportPeriod) periodComboBox.getSelectedItem();
         LocalDate date = selectedDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        List<Invoice> invoices = invoiceDAO.findByDateRange(date);
+        String fileName = period == ReportPeriod.DAY
+                ? dailyReportName(date)
+                : "Revenue_Report_" + period + "_" + period.startOf(date) + ".pdf";
+        submitExport(period, date, new File(downloadsDir(), fileName), true);
+    }
 
-        if (invoices.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "No data to export for this date.", "Info",
-                    JOptionPane.WARNING_MESSAGE);
+    /**
+     * Queue a daily report for every day of the selected period; days without invoices are skipped
+     */
+    private void exportEachDay() {
+        Date selectedDate = dateChooser.getDate();
+        if (selectedDate == null) {
+            JOptionPane.showMessageDialog(this, "Please select a date first.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
+        ReportPeriod period = (ReportPeriod) periodComboBox.getSelectedItem();
+        LocalDate date = selectedDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        LocalDate endDate = period.endOf(date);
+        for (LocalDate day = period.startOf(date); !day.isAfter(endDate); day = day.plusDays(1)) {
+            submitExport(ReportPeriod.DAY, day, new File(downloadsDir(), dailyReportName(day)), false);
+        }
+    }
+
+    /**
+     * End-of-day run: reprint the receipts of the selected date, oldest first, as one print job
+     */
+    private void printDayReceipts() {
+        Date selectedDate = dateChooser.getDate();
+        if (selectedDate == null) {
+            JOptionPane.showMessageDialog(this, "Please select a date first.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        LocalDate date = selectedDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        int confirm = JOptionPane.showConfirmDialog(this,
+                "Print the receipts of every invoice on " + date + "?",
+                "Print Day's Receipts", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        ReceiptReprint.submit(this, printRequest, "day-" + date, () -> {
+            List<Invoice> invoices = new ArrayList<>(invoiceDAO.findByDateRange(date));
+            Collections.reverse(invoices);
+            return invoices;
+        });
+    }
+
+    private static File downloadsDir() {
         // Default download path
         String userHome = System.getProperty("user.home");
-        File downloadsDir = new File(userHome, "Downloads");
-        String fileName = "Daily_Report_" + date.toString() + ".pdf";
-        File file = new File(downloadsDir, fileName);
-
-        try {
-            PDFReportGenerator.generateDailyReport(invoices, date, file.getAbsolutePath());
-            JOptionPane.showMessageDialog(this,
-                    "Report saved successfully to:\n" + file.getAbsolutePath(),
-                    "Success",
-                    JOptionPane.INFORMATION_MESSAGE);
-
-            // Optional: Open the file
-            if (Desktop.isDesktopSupported()) {
-                Desktop.getDesktop().open(file);
+        return new File(userHome, "Downloads");
+    }
+
+    private static String dailyReportName(LocalDate date) {
+        return "Daily_Report_" + date.toString() + ".pdf";
+    }
+
+    private void submitExport(ReportPeriod period, LocalDate date, File file, boolean single) {
+        ReportExportQueue.Job job = ReportExportQueue.submit(file.getName(),
+                export -> writeReport(export, period, date, file, single),
+                export -> exportChanged(export, single));
+        exportJobs.add(job);
+        updateExportStatus();
+    }
+
+    /**
+     * Runs on an export thread
+     */
+    private boolean writeReport(ReportExportQueue.Job job, ReportPeriod period, LocalDate date, File file,
+            boolean openWhenDone) throws Exception {
+        RevenueReport report = reportDAO.buildReport(period, date);
+        if (report.invoiceCount() == 0) {
+            return false;
+        }
+
+        PDFReportGenerator.Progress progress = rows -> job.setProgress((double) rows / report.invoiceCount());
+        try (Stream<InvoiceReportRow> invoices = invoiceDAO.streamReportRows(report.startDate(), report.endDate())) {
+            if (period == ReportPeriod.DAY) {
+                PDFReportGenerator.generateDailyReport(report, invoices, file.getAbsolutePath(), progress);
+            } else {
+                PDFReportGenerator.generatePeriodReport(report, invoices, file.getAbsolutePath(), progress);
             }
         } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Failed to generate PDF: " + e.getMessage(), "Error",
-                    JOptionPane.ERROR_MESSAGE);
+            file.delete(); // Don't leave a partial report behind
+            throw e;
+        }
+
+        // Opening can take a while, so do it here rather than on the EDT
+        if (openWhenDone && !job.isCancelled() && Desktop.isDesktopSupported()) {
+            Desktop.getDesktop().open(file);
+        }
+        return true;
+    }
+
+    private void exportChanged(ReportExportQueue.Job job, boolean single) {
+        if (!exportJobs.contains(job)) {
+            return; // From an earlier batch
+        }
+        if (!job.isFinished() || !reportedJobs.add(job)) {
+            updateExportStatus();
+            return;
+        }
+        if (job.getState() == ReportExportQueue.Job.State.DONE) {
+            if (!job.hasOutput() && single) {
+                JOptionPane.showMessageDialog(this, "No data to export for this period.", "Info",
+                        JOptionPane.WARNING_MESSAGE);
+            }
+        } else if (job.getState() == ReportExportQueue.Job.State.FAILED) {
+            job.getError().printStackTrace();
+            JOptionPane.showMessageDialog(this, "Failed to generate " + job.getName() + ": "
+                    + job.getError().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        updateExportStatus();
+    }
+
+    private void cancelExports() {
+        for (ReportExportQueue.Job job : exportJobs) {
+            job.cancel();
+        }
+    }
+
+    private void updateExportStatus() {
+        int finished = 0;
+        int saved = 0;
+        double progress = 0;
+        ReportExportQueue.Job running = null;
+        for (ReportExportQueue.Job job : exportJobs) {
+            progress += job.getProgress();
+            if (job.isFinished()) {
+                finished++;
+                if (job.getState() == ReportExportQueue.Job.State.DONE && job.hasOutput()) {
+                    saved++;
+                }
+            } else if (running == null && job.getState() == ReportExportQueue.Job.State.RUNNING) {
+                running = job;
+            }
+        }
+
+        if (finished == exportJobs.size()) {
+            // Idle: summarise the batch that just ended
+            boolean cancelled = exportJobs.stream()
+                    .anyMatch(job -> job.getState() == ReportExportQueue.Job.State.CANCELLED);
+            if (!exportJobs.isEmpty()) {
+                exportStatusLabel.setText((cancelled ? "Cancelled. " : "") + "Saved " + saved
+                        + " report(s) to Downloads");
+            }
+            exportJobs.clear();
+            reportedJobs.clear();
+            exportProgressBar.setVisible(false);
+            cancelExportButton.setVisible(false);
+        } else {
+            exportStatusLabel.setText("Exporting " + (finished + 1) + " of " + exportJobs.size()
+                    + (running != null ? ": " + running.getName() : "..."));
+            exportProgressBar.setValue((int) (progress * 100 / exportJobs.size()));
+            exportProgressBar.setVisible(true);
+            cancelExportButton.setVisible(true);
         }
+        revalidate();
     }
 }
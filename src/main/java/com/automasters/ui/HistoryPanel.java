@@ -1,7 +1,7 @@
 package com.automasters.ui;
 
 import com.automasters.dao.InvoiceDAO;
-import com.automasters.entity.Invoice;
+import com.automasters.dto.InvoiceSummary;
 import com.automasters.entity.InvoiceItem;
 
 import javax.swing.*;
@@ -10,6 +10,7 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 public class HistoryPanel extends JPanel {
@@ -20,6 +21,9 @@ public class HistoryPanel extends JPanel {
     private DefaultTableModel invoicesTableModel;
     private DefaultTableModel detailsTableModel;
     private InvoiceDAO invoiceDAO;
+    private final LatestRequest searchRequest = new LatestRequest();
+    private final LatestRequest detailsRequest = new LatestRequest();
+    private final LatestRequest printRequest = new LatestRequest();
     private JLabel customerInfoLabel;
     private JLabel totalAmountLabel;
 
@@ -104,6 +108,8 @@ public class HistoryPanel extends JPanel {
     // Public method to refresh data from database
     public void refresh() {
         // Clear search and results
+        searchRequest.cancel();
+        detailsRequest.cancel();
         searchField.setText("");
         invoicesTableModel.setRowCount(0);
         detailsTableModel.setRowCount(0);
@@ -116,10 +122,26 @@ public class HistoryPanel extends JPanel {
                 BorderFactory.createLineBorder(new Color(226, 232, 240), 1),
                 new EmptyBorder(15, 15, 15, 15)));
 
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(Color.WHITE);
+
         JLabel titleLabel = new JLabel("Invoices");
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
         titleLabel.setForeground(new Color(30, 41, 59));
-        panel.add(titleLabel, BorderLayout.NORTH);
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+
+        JButton reprintButton = new JButton("Reprint Selected");
+        reprintButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        reprintButton.setForeground(Color.WHITE);
+        reprintButton.setBackground(new Color(16, 185, 129));
+        reprintButton.setBorderPainted(false);
+        reprintButton.setFocusPainted(false);
+        reprintButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        reprintButton.setToolTipText("Print the receipts of the selected invoices again, as one print job");
+        reprintButton.addActionListener(e -> reprintSelected());
+        headerPanel.add(reprintButton, BorderLayout.EAST);
+
+        panel.add(headerPanel, BorderLayout.NORTH);
 
         String[] columns = { "Invoice No", "Date & Time", "Customer Name", "Contact", "Vehicle No", "Mileage (km)",
                 "Total (Rs.)" };
@@ -136,7 +158,8 @@ public class HistoryPanel extends JPanel {
         invoicesTable.setSelectionBackground(new Color(219, 234, 254));
         invoicesTable.setSelectionForeground(new Color(30, 41, 59));
         invoicesTable.setGridColor(new Color(226, 232, 240));
-        invoicesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Several invoices can be selected for reprinting; details show the first one
+        invoicesTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
 
         JTableHeader header = invoicesTable.getTableHeader();
         header.setFont(new Font("Segoe UI", Font.BOLD, 12));
@@ -239,70 +262,92 @@ public class HistoryPanel extends JPanel {
             return;
         }
 
-        try {
-            List<Invoice> invoices = invoiceDAO.findByVehicleNumber(vehicleNumber);
+        searchRequest.submit(invoiceDAO.findSummariesByVehicleNumberAsync(vehicleNumber),
+                invoices -> showSearchResults(vehicleNumber, invoices),
+                e -> JOptionPane.showMessageDialog(this, "Error searching: " + e.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
+    }
 
-            invoicesTableModel.setRowCount(0);
-            detailsTableModel.setRowCount(0);
-            customerInfoLabel.setText("Select an invoice to view details");
-            totalAmountLabel.setText("Total: Rs. 0.00");
+    private void showSearchResults(String vehicleNumber, List<InvoiceSummary> invoices) {
+        detailsRequest.cancel();
+        invoicesTableModel.setRowCount(0);
+        detailsTableModel.setRowCount(0);
+        customerInfoLabel.setText("Select an invoice to view details");
+        totalAmountLabel.setText("Total: Rs. 0.00");
 
-            if (invoices.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No invoices found for vehicle: " + vehicleNumber,
-                        "No Results", JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
+        if (invoices.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No invoices found for vehicle: " + vehicleNumber,
+                    "No Results", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
 
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
-
-            for (Invoice invoice : invoices) {
-                String mileageDisplay = invoice.getCurrentMileage() != null
-                        ? String.format("%,d", invoice.getCurrentMileage())
-                        : "-";
-
-                invoicesTableModel.addRow(new Object[] {
-                        invoice.getInvoiceNumber(),
-                        invoice.getInvoiceDate().format(formatter),
-                        invoice.getCustomerName(),
-                        invoice.getContactNumber(),
-                        invoice.getVehicleNumber(),
-                        mileageDisplay,
-                        String.format("%.2f", invoice.getTotalAmount())
-                });
-            }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+        for (InvoiceSummary invoice : invoices) {
+            String mileageDisplay = invoice.currentMileage() != null
+                    ? String.format("%,d", invoice.currentMileage())
+                    : "-";
+
+            invoicesTableModel.addRow(new Object[] {
+                    invoice.invoiceNumber(),
+                    invoice.invoiceDate().format(formatter),
+                    invoice.customerName(),
+                    invoice.contactNumber(),
+                    invoice.vehicleNumber(),
+                    mileageDisplay,
+                    String.format("%.2f", invoice.totalAmount())
+            });
+        }
 
-            // Store invoices for detail lookup
-            invoicesTable.putClientProperty("invoices", invoices);
+        // Store invoices for detail lookup
+        invoicesTable.putClientProperty("invoices", invoices);
+    }
 
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error searching: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
+    @SuppressWarnings("unchecked")
+    private void reprintSelected() {
+        List<InvoiceSummary> invoices = (List<InvoiceSummary>) invoicesTable.getClientProperty("invoices");
+        int[] rows = invoicesTable.getSelectedRows();
+        if (invoices == null || rows.length == 0) {
+            JOptionPane.showMessageDialog(this, "Please select the invoices to reprint.",
+                    "Validation Error", JOptionPane.WARNING_MESSAGE);
+            return;
         }
+
+        List<Long> ids = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            ids.add(invoices.get(row).id());
+        }
+        String jobName = rows.length == 1 ? invoices.get(rows[0]).invoiceNumber() : "reprint-" + rows.length;
+        ReceiptReprint.submit(this, printRequest, jobName, () -> invoiceDAO.findByIds(ids));
     }
 
     @SuppressWarnings("unchecked")
     private void showInvoiceDetails(int row) {
-        List<Invoice> invoices = (List<Invoice>) invoicesTable.getClientProperty("invoices");
+        List<InvoiceSummary> invoices = (List<InvoiceSummary>) invoicesTable.getClientProperty("invoices");
         if (invoices == null || row >= invoices.size())
             return;
 
-        Invoice invoice = invoices.get(row);
+        InvoiceSummary invoice = invoices.get(row);
 
         customerInfoLabel.setText(String.format("%s | %s | %s",
-                invoice.getInvoiceNumber(),
-                invoice.getCustomerName(),
-                invoice.getVehicleNumber()));
+                invoice.invoiceNumber(),
+                invoice.customerName(),
+                invoice.vehicleNumber()));
 
         detailsTableModel.setRowCount(0);
+        totalAmountLabel.setText(String.format("Total: Rs. %.2f", invoice.totalAmount()));
 
-        for (InvoiceItem item : invoice.getItems()) {
-            detailsTableModel.addRow(new Object[] {
-                    item.getSerialNumber(),
-                    item.getDescription(),
-                    String.format("%.2f", item.getPrice())
-            });
-        }
-
-        totalAmountLabel.setText(String.format("Total: Rs. %.2f", invoice.getTotalAmount()));
+        // Line items are only loaded for the invoice being looked at
+        detailsRequest.submit(invoiceDAO.findItemsByInvoiceIdAsync(invoice.id()), items -> {
+            detailsTableModel.setRowCount(0);
+            for (InvoiceItem item : items) {
+                detailsTableModel.addRow(new Object[] {
+                        item.getSerialNumber(),
+                        item.getDescription(),
+                        String.format("%.2f", item.getPrice())
+                });
+            }
+        }, e -> JOptionPane.showMessageDialog(this, "Error loading invoice details: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
 }
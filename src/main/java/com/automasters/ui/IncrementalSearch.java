@@ -0,0 +1,122 @@
+package com.automasters.ui;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Search-as-you-type for a text field.
+ * Keystrokes are debounced, a newer query supersedes one still in flight, and when the term
+ * extends the term of the last query (e.g. "brake" -> "brake pad") the previous results are
+ * filtered in memory instead of querying the database again.
+ */
+public class IncrementalSearch<T> {
+
+    private static final int DEFAULT_DELAY_MILLIS = 250;
+
+    private final JTextField field;
+    private final Function<String, List<T>> query;
+    private final BiPredicate<T, String> matcher;
+    private final Consumer<List<T>> onResults;
+    private final Consumer<Throwable> onError;
+    private final Timer debounceTimer;
+    private final LatestRequest request = new LatestRequest();
+
+    // Complete results of the last finished query, keyed by its lower-case term
+    private String cachedTerm;
+    private List<T> cachedResults;
+    // Lower-case term of the last search that was run or served from the cache
+    private String lastTerm;
+
+    /**
+     * @param query    runs in the background with the trimmed term ("" means everything)
+     * @param matcher  tests a result against a lower-case term the same way the query does
+     * @param onResults called on the EDT with the results for the current term
+     */
+    public IncrementalSearch(JTextField field, Function<String, List<T>> query, BiPredicate<T, String> matcher,
+            Consumer<List<T>> onResults, Consumer<Throwable> onError) {
+        this.field = field;
+        this.query = query;
+        this.matcher = matcher;
+        this.onResults = onResults;
+        this.onError = onError;
+
+        debounceTimer = new Timer(DEFAULT_DELAY_MILLIS, e -> runSearch());
+        debounceTimer.setRepeats(false);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+        });
+    }
+
+    /**
+     * Search for the current text right away, e.g. on Enter or a Search button
+     */
+    public void searchNow() {
+        debounceTimer.stop();
+        runSearch();
+    }
+
+    /**
+     * Forget cached results so the next search goes to the database. Call after the data changes.
+     */
+    public void invalidate() {
+        debounceTimer.stop();
+        request.cancel();
+        cachedTerm = null;
+        cachedResults = null;
+        lastTerm = null;
+    }
+
+    private void runSearch() {
+        String term = field.getText().trim();
+        String key = term.toLowerCase();
+        if (key.equals(lastTerm)) {
+            return; // Same search already shown or in flight
+        }
+        lastTerm = key;
+
+        if (cachedResults != null && key.contains(cachedTerm)) {
+            request.cancel();
+            onResults.accept(filter(cachedResults, key));
+            return;
+        }
+
+        request.submit(() -> query.apply(term), results -> {
+            cachedTerm = key;
+            cachedResults = results;
+            onResults.accept(results);
+        }, error -> {
+            lastTerm = null;
+            onError.accept(error);
+        });
+    }
+
+    private List<T> filter(List<T> results, String key) {
+        List<T> filtered = new ArrayList<>();
+        for (T result : results) {
+            if (matcher.test(result, key)) {
+                filtered.add(result);
+            }
+        }
+        return filtered;
+    }
+}
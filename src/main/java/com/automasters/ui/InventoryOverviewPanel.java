@@ -12,11 +12,14 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class InventoryOverviewPanel extends JPanel {
 
     private JTextField searchField;
+    private IncrementalSearch<ItemRow> itemSearch;
     private JTable itemsTable;
     private JTable batchesTable;
     private DefaultTableModel itemsTableModel;
@@ -79,14 +82,15 @@ public class InventoryOverviewPanel extends JPanel {
         searchPanel.setBorder(new EmptyBorder(10, 0, 10, 0));
 
         searchField = createTextField();
-        searchField.addKeyListener(new java.awt.event.KeyAdapter() {
-            public void keyReleased(java.awt.event.KeyEvent evt) {
-                searchItems();
-            }
-        });
+        itemSearch = new IncrementalSearch<>(searchField, this::queryItems,
+                (row, term) -> row.item().getItemName().toLowerCase().contains(term),
+                this::showItemRows,
+                e -> JOptionPane.showMessageDialog(this, "Error searching items: " + e.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
+        searchField.addActionListener(e -> itemSearch.searchNow());
 
         JButton searchButton = createStyledButton("Search", new Color(59, 130, 246));
-        searchButton.addActionListener(e -> searchItems());
+        searchButton.addActionListener(e -> itemSearch.searchNow());
 
         searchPanel.add(searchField, BorderLayout.CENTER);
         searchPanel.add(searchButton, BorderLayout.EAST);
@@ -238,47 +242,42 @@ public class InventoryOverviewPanel extends JPanel {
     }
 
     private void loadAllItems() {
-        itemsTableModel.setRowCount(0);
-        try {
-            List<Item> items = itemDAO.findAll();
-            for (Item item : items) {
-                int totalStock = stockBatchDAO.getTotalQuantity(item);
-                itemsTableModel.addRow(new Object[] {
-                        item.getItemName(),
-                        totalStock
-                });
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading items: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        itemSearch.invalidate();
+        itemSearch.searchNow();
     }
 
-    private void searchItems() {
-        String searchTerm = searchField.getText().trim();
-        itemsTableModel.setRowCount(0);
+    // Runs in the background
+    private List<ItemRow> queryItems(String searchTerm) {
+        List<Item> items;
+        Map<Long, Integer> totals;
+        if (searchTerm.isEmpty()) {
+            items = itemDAO.findAll();
+            totals = stockBatchDAO.getTotalQuantities();
+        } else {
+            items = itemDAO.searchItems(searchTerm);
+            totals = stockBatchDAO.getTotalQuantities(items);
+        }
 
-        try {
-            List<Item> items;
-            if (searchTerm.isEmpty()) {
-                items = itemDAO.findAll();
-            } else {
-                items = itemDAO.searchItems(searchTerm);
-            }
+        List<ItemRow> rows = new ArrayList<>(items.size());
+        for (Item item : items) {
+            rows.add(new ItemRow(item, totals.getOrDefault(item.getId(), 0)));
+        }
+        return rows;
+    }
 
-            for (Item item : items) {
-                int totalStock = stockBatchDAO.getTotalQuantity(item);
-                itemsTableModel.addRow(new Object[] {
-                        item.getItemName(),
-                        totalStock
-                });
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error searching items: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
+    private void showItemRows(List<ItemRow> rows) {
+        itemsTableModel.setRowCount(0);
+        for (ItemRow row : rows) {
+            itemsTableModel.addRow(new Object[] {
+                    row.item().getItemName(),
+                    row.totalStock()
+            });
         }
     }
 
+    private record ItemRow(Item item, int totalStock) {
+    }
+
     private void loadBatchesForSelectedItem() {
         int selectedRow = itemsTable.getSelectedRow();
         if (selectedRow < 0) {
@@ -1,9 +1,11 @@
 package com.automasters.ui;
 
+import com.automasters.dao.DAOExecutor;
 import com.automasters.dao.InvoiceDAO;
 import com.automasters.entity.Invoice;
 import com.automasters.entity.InvoiceItem;
 import com.automasters.util.ReceiptPrinter;
+import com.automasters.util.ReceiptSpooler;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -15,6 +17,9 @@ import java.time.format.DateTimeFormatter;
 
 public class InvoicePanel extends JPanel {
 
+    // How long to wait before trying again when the next invoice number could not be loaded
+    private static final int NUMBER_RETRY_MILLIS = 5_000;
+
     private JTextField invoiceNumberField;
     private JTextField dateField;
     private JTextField customerNameField;
@@ -24,13 +29,37 @@ public class InvoicePanel extends JPanel {
     private JTextField descriptionField;
     private JTextField priceField;
     private JLabel totalLabel;
+    private JLabel printStatusLabel;
+    private JButton retryPrintButton;
+    private JButton saveButton;
+    private JButton savePrintButton;
     private JTable itemsTable;
     private DefaultTableModel tableModel;
     private InvoiceDAO invoiceDAO;
     private int serialCounter = 1;
+    private final LatestRequest numberRequest = new LatestRequest();
+    private final LatestRequest saveRequest = new LatestRequest();
+    private final Timer numberRetry;
+    private Runnable firstInvoiceReady;
+
+    /**
+     * The next invoice number, and whether no invoice has been numbered yet
+     */
+    private record NextNumber(String invoiceNumber, boolean first) {
+    }
 
     public InvoicePanel() {
-        invoiceDAO = new InvoiceDAO();
+        this(new InvoiceDAO(), NUMBER_RETRY_MILLIS);
+        watchPrintQueue();
+    }
+
+    /**
+     * The form without the print queue status, which would start the receipt spooler
+     */
+    InvoicePanel(InvoiceDAO invoiceDAO, int numberRetryMillis) {
+        this.invoiceDAO = invoiceDAO;
+        numberRetry = new Timer(numberRetryMillis, e -> loadInvoiceNumber());
+        numberRetry.setRepeats(false);
         initializeUI();
         generateNewInvoice();
     }
@@ -235,16 +264,26 @@ public class InvoicePanel extends JPanel {
         JPanel buttonsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 15, 15));
         buttonsPanel.setBackground(new Color(245, 247, 250));
 
+        printStatusLabel = new JLabel(" ");
+        printStatusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        printStatusLabel.setForeground(new Color(100, 116, 139));
+        buttonsPanel.add(printStatusLabel);
+
+        retryPrintButton = createButton("Retry Print", new Color(245, 158, 11));
+        retryPrintButton.setVisible(false);
+        retryPrintButton.addActionListener(e -> retryPrinting());
+        buttonsPanel.add(retryPrintButton);
+
         JButton clearButton = createButton("Clear All", new Color(239, 68, 68));
         clearButton.addActionListener(e -> clearForm());
         buttonsPanel.add(clearButton);
 
-        JButton saveButton = createButton("Save Invoice", new Color(59, 130, 246));
+        saveButton = createButton("Save Invoice", new Color(59, 130, 246));
         saveButton.setPreferredSize(new Dimension(150, 40));
         saveButton.addActionListener(e -> saveInvoice());
         buttonsPanel.add(saveButton);
 
-        JButton savePrintButton = createButton("Save & Print", new Color(16, 185, 129));
+        savePrintButton = createButton("Save & Print", new Color(16, 185, 129));
         savePrintButton.setPreferredSize(new Dimension(150, 40));
         savePrintButton.addActionListener(e -> saveAndPrintInvoice());
         buttonsPanel.add(savePrintButton);
@@ -295,19 +334,66 @@ public class InvoicePanel extends JPanel {
         generateNewInvoice();
     }
 
+    /**
+     * Run action on the EDT once the form can be used: the first invoice number has loaded, or loading it
+     * failed and the number can be typed in while it is retried
+     */
+    public void onFirstInvoiceReady(Runnable action) {
+        firstInvoiceReady = action;
+    }
+
     private void generateNewInvoice() {
-        String invoiceNumber = invoiceDAO.generateNextInvoiceNumber();
-        invoiceNumberField.setText(invoiceNumber);
+        // The form can be filled in while the number loads; saving waits for it (the field is empty)
+        invoiceNumberField.setText("");
+        invoiceNumberField.setEditable(false);
+        loadInvoiceNumber();
+
+        updateDateTime();
+        serialCounter = 1;
+    }
+
+    private void loadInvoiceNumber() {
+        numberRetry.stop();
+        numberRequest.submit(
+                () -> new NextNumber(invoiceDAO.generateNextInvoiceNumber(), invoiceDAO.isFirstInvoice()),
+                this::showInvoiceNumber,
+                this::showInvoiceNumberError);
+    }
+
+    /**
+     * Leave the number to be typed in (saving allocates the real one anyway) and keep trying in the
+     * background, rather than leaving an empty field that can never be filled
+     */
+    private void showInvoiceNumberError(Throwable error) {
+        System.err.println("Loading the next invoice number failed: " + error.getMessage());
+        invoiceNumberField.setEditable(true);
+        invoiceNumberField.setToolTipText("Could not load the next invoice number (" + error.getMessage()
+                + "), retrying. Enter it as INV-XXXXXXX to carry on.");
+        numberRetry.start();
+        fireFirstInvoiceReady();
+    }
+
+    private void showInvoiceNumber(NextNumber next) {
+        invoiceNumberField.setToolTipText(null);
+        // Keep a first invoice number the user typed in while the number could not be loaded
+        if (!next.first() || invoiceNumberField.getText().isBlank()) {
+            invoiceNumberField.setText(next.invoiceNumber());
+        }
 
         // Make invoice number editable only for first invoice
-        boolean isFirst = invoiceDAO.isFirstInvoice();
-        invoiceNumberField.setEditable(isFirst);
-        if (!isFirst) {
+        invoiceNumberField.setEditable(next.first());
+        if (!next.first()) {
             invoiceNumberField.setBackground(new Color(248, 250, 252));
         }
+        fireFirstInvoiceReady();
+    }
 
-        updateDateTime();
-        serialCounter = 1;
+    private void fireFirstInvoiceReady() {
+        if (firstInvoiceReady != null) {
+            Runnable action = firstInvoiceReady;
+            firstInvoiceReady = null;
+            action.run();
+        }
     }
 
     private void updateDateTime() {
@@ -478,18 +564,13 @@ public class InvoicePanel extends JPanel {
         if (invoice == null)
             return;
 
-        try {
-            invoiceDAO.save(invoice);
-
+        save(invoice, () -> {
             JOptionPane.showMessageDialog(this,
                     "Invoice " + invoice.getInvoiceNumber() + " saved successfully!",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
 
             clearForm();
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error saving invoice: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     private void saveAndPrintInvoice() {
@@ -497,20 +578,83 @@ public class InvoicePanel extends JPanel {
         if (invoice == null)
             return;
 
-        try {
-            invoiceDAO.save(invoice);
+        save(invoice, () -> printSavedInvoice(invoice));
+    }
+
+    /**
+     * Save on the DAO executor, since a save waits for the startup fix-ups (see StartupTask), then call
+     * onSaved on the EDT. The save buttons stay disabled meanwhile, so the invoice is not saved twice.
+     */
+    private void save(Invoice invoice, Runnable onSaved) {
+        setSaving(true);
+        saveRequest.submit(DAOExecutor.runAsync(() -> invoiceDAO.save(invoice)), saved -> {
+            setSaving(false);
+            onSaved.run();
+        }, e -> {
+            setSaving(false);
+            JOptionPane.showMessageDialog(this, "Error saving invoice: " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
 
-            // Print receipt
-            ReceiptPrinter printer = new ReceiptPrinter();
-            printer.printInvoice(invoice);
+    private void setSaving(boolean saving) {
+        saveButton.setEnabled(!saving);
+        savePrintButton.setEnabled(!saving);
+    }
+
+    private void printSavedInvoice(Invoice invoice) {
+        // The receipt prints in the background; the spooler keeps retrying if the printer is offline
+        try {
+            byte[] receipt = new ReceiptPrinter().renderInvoice(invoice);
+            ReceiptSpooler.getInstance().submit(invoice.getInvoiceNumber(), receipt);
 
             JOptionPane.showMessageDialog(this,
-                    "Invoice " + invoice.getInvoiceNumber() + " saved and printed successfully!",
+                    "Invoice " + invoice.getInvoiceNumber() + " saved and sent to the printer!",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this,
+                    "Invoice " + invoice.getInvoiceNumber() + " was saved, but the receipt could not be queued: "
+                            + e.getMessage(),
+                    "Print Error", JOptionPane.ERROR_MESSAGE);
+        }
 
-            clearForm();
+        clearForm();
+    }
+
+    /**
+     * Show the receipt print queue under the buttons, so the cashier can see when the printer needs attention
+     */
+    private void watchPrintQueue() {
+        try {
+            ReceiptSpooler.getInstance()
+                    .addListener(status -> SwingUtilities.invokeLater(() -> showPrintStatus(status)));
         } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error saving invoice: " + e.getMessage(),
+            printStatusLabel.setText("Receipt printing unavailable: " + e.getMessage());
+            printStatusLabel.setForeground(new Color(239, 68, 68));
+        }
+    }
+
+    private void showPrintStatus(ReceiptSpooler.Status status) {
+        if (status.isFailing()) {
+            // The printer may have printed part of the failed receipt, and it is sent again in full
+            printStatusLabel.setText(String.format("Printer problem (%s): %d receipt(s) waiting, retrying in %ds"
+                            + " - the first one may print partly twice",
+                    status.lastError(), status.pending(), Math.max(1, status.retryInMillis() / 1000)));
+            printStatusLabel.setForeground(new Color(239, 68, 68));
+        } else if (status.pending() > 0) {
+            printStatusLabel.setText("Printing " + status.pending() + " receipt(s)...");
+            printStatusLabel.setForeground(new Color(100, 116, 139));
+        } else {
+            printStatusLabel.setText(" ");
+        }
+        retryPrintButton.setVisible(status.isFailing());
+    }
+
+    private void retryPrinting() {
+        try {
+            ReceiptSpooler.getInstance().retryNow();
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this, "Error retrying print: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
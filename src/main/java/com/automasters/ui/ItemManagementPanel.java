@@ -13,6 +13,7 @@ public class ItemManagementPanel extends JPanel {
     private JTextField itemNameField;
     private JTextField descriptionField;
     private JTextField searchField;
+    private IncrementalSearch<Item> itemSearch;
     private JTable itemsTable;
     private DefaultTableModel tableModel;
     private ItemDAO itemDAO;
@@ -119,11 +120,14 @@ public class ItemManagementPanel extends JPanel {
         searchPanel.add(searchLabel, BorderLayout.WEST);
 
         searchField = createTextField();
-        searchField.addKeyListener(new java.awt.event.KeyAdapter() {
-            public void keyReleased(java.awt.event.KeyEvent evt) {
-                searchItems();
-            }
-        });
+        itemSearch = new IncrementalSearch<>(searchField,
+                term -> term.isEmpty() ? itemDAO.findAll() : itemDAO.searchItems(term),
+                (item, term) -> item.getItemName().toLowerCase().contains(term),
+                this::showItems,
+                e -> JOptionPane.showMessageDialog(this,
+                        "Error searching items: " + e.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
+        searchField.addActionListener(e -> itemSearch.searchNow());
         searchPanel.add(searchField, BorderLayout.CENTER);
 
         panel.add(searchPanel, BorderLayout.NORTH);
@@ -235,31 +239,16 @@ public class ItemManagementPanel extends JPanel {
         }
     }
 
-    private void searchItems() {
-        String searchTerm = searchField.getText().trim();
+    private void showItems(java.util.List<Item> items) {
         tableModel.setRowCount(0);
-
-        try {
-            java.util.List<Item> items;
-            if (searchTerm.isEmpty()) {
-                items = itemDAO.findAll();
-            } else {
-                items = itemDAO.searchItems(searchTerm);
-            }
-
-            for (Item item : items) {
-                tableModel.addRow(new Object[] {
-                        item.getId(),
-                        item.getItemName(),
-                        item.getDescription() != null ? item.getDescription() : "",
-                        item.getCreatedDate().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
-                        "Delete"
-                });
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error searching items: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
+        for (Item item : items) {
+            tableModel.addRow(new Object[] {
+                    item.getId(),
+                    item.getItemName(),
+                    item.getDescription() != null ? item.getDescription() : "",
+                    item.getCreatedDate().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
+                    "Delete"
+            });
         }
     }
 
@@ -269,8 +258,9 @@ public class ItemManagementPanel extends JPanel {
     }
 
     private void loadAllItems() {
+        itemSearch.invalidate();
         searchField.setText("");
-        searchItems();
+        itemSearch.searchNow();
     }
 
     private JLabel createLabel(String text) {
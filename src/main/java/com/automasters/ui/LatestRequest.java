@@ -0,0 +1,85 @@
+package com.automasters.ui;
+
+import com.automasters.dao.DAOExecutor;
+
+import javax.swing.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Tracks a panel's background database request and hands the result back on the EDT.
+ * Each panel keeps one instance per kind of request; submitting a new request supersedes the
+ * previous one, which is cancelled if it has not started and otherwise has its result discarded.
+ */
+public class LatestRequest {
+
+    private long generation;
+    private CompletableFuture<?> current;
+
+    /**
+     * Call onSuccess or onError on the EDT when the future completes, if this is still the latest request.
+     * Must be called on the EDT.
+     */
+    public <T> CompletableFuture<T> submit(CompletableFuture<T> future, Consumer<T> onSuccess,
+            Consumer<Throwable> onError) {
+        cancel();
+        long requestGeneration = generation;
+
+        current = future;
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (requestGeneration != generation) {
+                return; // Superseded by a newer request
+            }
+            current = null;
+            if (error != null) {
+                onError.accept(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            } else {
+                onSuccess.accept(result);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Discard the pending request, if any. Must be called on the EDT.
+     */
+    public void cancel() {
+        generation++;
+        if (current != null) {
+            current.cancel(false);
+            current = null;
+        }
+    }
+
+    /**
+     * Run query on the DAO executor, see {@link #submit(CompletableFuture, Consumer, Consumer)}
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        return submit(DAOExecutor.supplyAsync(query), onSuccess, onError);
+    }
+
+    /**
+     * Combine the results of two requests into one that can be submitted; cancelling it cancels both,
+     * so a superseded request does not leave its queries queued on the DAO executor
+     */
+    public static <A, B, T> CompletableFuture<T> combine(CompletableFuture<A> first, CompletableFuture<B> second,
+            BiFunction<A, B, T> combiner) {
+        CompletableFuture<T> combined = first.thenCombine(second, combiner);
+        combined.whenComplete((result, error) -> {
+            if (combined.isCancelled()) {
+                first.cancel(false);
+                second.cancel(false);
+            }
+        });
+        return combined;
+    }
+
+    public boolean isPending() {
+        return current != null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.automasters.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A card of MainFrame that is only built when it is first shown or warmed up, so screens the user
+ * never opens cost nothing at startup. All methods must be called on the EDT.
+ */
+public class LazyPanel<T extends JPanel> {
+
+    private final String card;
+    private final JPanel cards;
+    private final Supplier<T> factory;
+    private final Consumer<T> refresher;
+    private T panel;
+    private long createMillis;
+
+    /**
+     * @param cards     the CardLayout container the panel is added to once built
+     * @param factory   builds the panel; its constructor loads the panel's data
+     * @param refresher reloads the data of a panel that was built earlier
+     */
+    public LazyPanel(String card, JPanel cards, Supplier<T> factory, Consumer<T> refresher) {
+        this.card = card;
+        this.cards = cards;
+        this.factory = factory;
+        this.refresher = refresher;
+    }
+
+    public String getCard() {
+        return card;
+    }
+
+    public boolean isCreated() {
+        return panel != null;
+    }
+
+    /**
+     * The panel, built and added to the card container on the first call
+     */
+    public T get() {
+        if (panel == null) {
+            long start = System.nanoTime();
+            panel = factory.get();
+            cards.add(panel, card);
+            createMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+        return panel;
+    }
+
+    /**
+     * Show the card, with fresh data if the panel was built earlier (a new panel has just loaded it)
+     */
+    public void show() {
+        if (panel == null) {
+            get();
+        } else {
+            refresher.accept(panel);
+        }
+        ((CardLayout) cards.getLayout()).show(cards, card);
+    }
+
+    /**
+     * How long building the panel held up the EDT, 0 until it is built
+     */
+    public long getCreateMillis() {
+        return createMillis;
+    }
+}
@@ -1,22 +1,34 @@
 package com.automasters.ui;
 
+import com.automasters.dao.DAOExecutor;
+import com.automasters.dao.ItemCatalog;
+import com.automasters.util.PrintServiceRegistry;
 import com.automasters.util.ReceiptPrinter;
+import com.automasters.util.ReceiptSink;
 
 import javax.swing.*;
 import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 public class MainFrame extends JFrame {
 
-    private CardLayout cardLayout;
+    // Time from JVM start until the first invoice can be filled in; a slower start is logged
+    private static final long FIRST_INVOICE_TARGET_MILLIS = 2_000;
+    // Pause between warm-up steps, so clicks and typing are never queued behind several panel builds
+    private static final int WARM_UP_DELAY_MILLIS = 300;
+
     private JPanel mainPanel;
-    private InvoicePanel invoicePanel;
-    private HistoryPanel historyPanel;
-    private ItemManagementPanel itemManagementPanel;
-    private StockInPanel stockInPanel;
-    private StockOutPanel stockOutPanel;
-    private StockHistoryPanel stockHistoryPanel;
-    private InventoryOverviewPanel inventoryOverviewPanel;
-    private DailyInvoiceReportPanel dailyReportPanel;
+    private LazyPanel<InvoicePanel> invoicePanel;
+    private LazyPanel<HistoryPanel> historyPanel;
+    private LazyPanel<ItemManagementPanel> itemManagementPanel;
+    private LazyPanel<StockInPanel> stockInPanel;
+    private LazyPanel<StockOutPanel> stockOutPanel;
+    private LazyPanel<StockHistoryPanel> stockHistoryPanel;
+    private LazyPanel<InventoryOverviewPanel> inventoryOverviewPanel;
+    private LazyPanel<DailyInvoiceReportPanel> dailyReportPanel;
+    private final Deque<LazyPanel<?>> warmUpQueue = new ArrayDeque<>();
 
     public MainFrame() {
         initializeUI();
@@ -51,35 +63,74 @@ public class MainFrame extends JFrame {
         JPanel sidebar = createSidebar();
         container.add(sidebar, BorderLayout.WEST);
 
-        // Main content area with CardLayout
-        cardLayout = new CardLayout();
-        mainPanel = new JPanel(cardLayout);
+        // Main content area with CardLayout; panels are built on first use
+        mainPanel = new JPanel(new CardLayout());
         mainPanel.setBackground(new Color(245, 247, 250));
 
-        invoicePanel = new InvoicePanel();
-        historyPanel = new HistoryPanel();
-        itemManagementPanel = new ItemManagementPanel();
-        stockInPanel = new StockInPanel();
-        stockOutPanel = new StockOutPanel();
-        stockHistoryPanel = new StockHistoryPanel();
-        inventoryOverviewPanel = new InventoryOverviewPanel();
-
-        dailyReportPanel = new DailyInvoiceReportPanel();
-
-        mainPanel.add(invoicePanel, "INVOICE");
-        mainPanel.add(historyPanel, "HISTORY");
-        mainPanel.add(itemManagementPanel, "ITEMS");
-        mainPanel.add(stockInPanel, "STOCK_IN");
-        mainPanel.add(stockOutPanel, "STOCK_OUT");
-        mainPanel.add(stockHistoryPanel, "STOCK_HISTORY");
-        mainPanel.add(inventoryOverviewPanel, "INVENTORY");
-        mainPanel.add(dailyReportPanel, "DAILY_REPORT");
+        invoicePanel = new LazyPanel<>("INVOICE", mainPanel, InvoicePanel::new, InvoicePanel::refresh);
+        historyPanel = new LazyPanel<>("HISTORY", mainPanel, HistoryPanel::new, HistoryPanel::refresh);
+        itemManagementPanel = new LazyPanel<>("ITEMS", mainPanel, ItemManagementPanel::new,
+                ItemManagementPanel::refresh);
+        stockInPanel = new LazyPanel<>("STOCK_IN", mainPanel, StockInPanel::new, StockInPanel::refresh);
+        stockOutPanel = new LazyPanel<>("STOCK_OUT", mainPanel, StockOutPanel::new, StockOutPanel::refresh);
+        stockHistoryPanel = new LazyPanel<>("STOCK_HISTORY", mainPanel, StockHistoryPanel::new,
+                StockHistoryPanel::refresh);
+        inventoryOverviewPanel = new LazyPanel<>("INVENTORY", mainPanel, InventoryOverviewPanel::new,
+                InventoryOverviewPanel::refresh);
+        dailyReportPanel = new LazyPanel<>("DAILY_REPORT", mainPanel, DailyInvoiceReportPanel::new,
+                DailyInvoiceReportPanel::refreshData);
+
+        // Only the invoice screen is needed to start working; the rest are warmed up once it is ready,
+        // the screens most often opened next first
+        invoicePanel.get().onFirstInvoiceReady(() -> {
+            reportFirstInvoiceReady();
+            startWarmUp();
+        });
+        warmUpQueue.add(historyPanel);
+        warmUpQueue.add(dailyReportPanel);
+        warmUpQueue.add(stockOutPanel);
+        warmUpQueue.add(stockInPanel);
+        warmUpQueue.add(itemManagementPanel);
+        warmUpQueue.add(inventoryOverviewPanel);
+        warmUpQueue.add(stockHistoryPanel);
 
         container.add(mainPanel, BorderLayout.CENTER);
 
         add(container);
     }
 
+    private void reportFirstInvoiceReady() {
+        long millis = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (millis > FIRST_INVOICE_TARGET_MILLIS) {
+            System.err.println("First invoice ready " + millis + " ms after start, missing the "
+                    + FIRST_INVOICE_TARGET_MILLIS + " ms target; invoice screen built in "
+                    + invoicePanel.getCreateMillis() + " ms");
+        }
+    }
+
+    /**
+     * Build the remaining panels one at a time while the user works. Panels are Swing components and
+     * must be built on the EDT, but their data loads on the DAO executor, and the item catalogue used by
+     * the stock screens is loaded off the EDT before they are built.
+     */
+    private void startWarmUp() {
+        DAOExecutor.runAsync(() -> ItemCatalog.getInstance().findAll());
+
+        Timer timer = new Timer(WARM_UP_DELAY_MILLIS, null);
+        timer.addActionListener(e -> {
+            LazyPanel<?> next = warmUpQueue.poll();
+            while (next != null && next.isCreated()) {
+                next = warmUpQueue.poll();
+            }
+            if (next == null) {
+                timer.stop();
+                return;
+            }
+            next.get();
+        });
+        timer.start();
+    }
+
     private JPanel createSidebar() {
         JPanel sidebar = new JPanel();
         sidebar.setPreferredSize(new Dimension(220, 0));
@@ -120,50 +171,43 @@ public class MainFrame extends JFrame {
         JButton inventoryBtn = createNavButton("📋 Inventory Overview", false);
 
         invoiceBtn.addActionListener(e -> {
-            invoicePanel.refresh();
-            cardLayout.show(mainPanel, "INVOICE");
+            invoicePanel.show();
             updateButtonStyles(invoiceBtn, historyBtn, itemsBtn, stockInBtn, stockOutBtn, stockHistoryBtn,
                     inventoryBtn);
         });
 
         historyBtn.addActionListener(e -> {
-            historyPanel.refresh();
-            cardLayout.show(mainPanel, "HISTORY");
+            historyPanel.show();
             updateButtonStyles(historyBtn, invoiceBtn, itemsBtn, stockInBtn, stockOutBtn, stockHistoryBtn,
                     inventoryBtn);
         });
 
         itemsBtn.addActionListener(e -> {
-            itemManagementPanel.refresh();
-            cardLayout.show(mainPanel, "ITEMS");
+            itemManagementPanel.show();
             updateButtonStyles(itemsBtn, invoiceBtn, historyBtn, stockInBtn, stockOutBtn, stockHistoryBtn,
                     inventoryBtn);
         });
 
         stockInBtn.addActionListener(e -> {
-            stockInPanel.refresh();
-            cardLayout.show(mainPanel, "STOCK_IN");
+            stockInPanel.show();
             updateButtonStyles(stockInBtn, invoiceBtn, historyBtn, itemsBtn, stockOutBtn, stockHistoryBtn,
                     inventoryBtn);
         });
 
         stockOutBtn.addActionListener(e -> {
-            stockOutPanel.refresh();
-            cardLayout.show(mainPanel, "STOCK_OUT");
+            stockOutPanel.show();
             updateButtonStyles(stockOutBtn, invoiceBtn, historyBtn, itemsBtn, stockInBtn, stockHistoryBtn,
                     inventoryBtn);
         });
 
         stockHistoryBtn.addActionListener(e -> {
-            stockHistoryPanel.refresh();
-            cardLayout.show(mainPanel, "STOCK_HISTORY");
+            stockHistoryPanel.show();
             updateButtonStyles(stockHistoryBtn, invoiceBtn, historyBtn, itemsBtn, stockInBtn, stockOutBtn,
                     inventoryBtn);
         });
 
         inventoryBtn.addActionListener(e -> {
-            inventoryOverviewPanel.refresh();
-            cardLayout.show(mainPanel, "INVENTORY");
+            inventoryOverviewPanel.show();
             updateButtonStyles(inventoryBtn, invoiceBtn, historyBtn, itemsBtn, stockInBtn, stockOutBtn,
                     stockHistoryBtn);
         });
@@ -191,8 +235,7 @@ public class MainFrame extends JFrame {
 
         JButton dailyReportBtn = createNavButton("📅 Daily Report", false);
         dailyReportBtn.addActionListener(e -> {
-            dailyReportPanel.refreshData();
-            cardLayout.show(mainPanel, "DAILY_REPORT");
+            dailyReportPanel.show();
             updateButtonStyles(dailyReportBtn, invoiceBtn, historyBtn, itemsBtn, stockInBtn, stockOutBtn,
                     stockHistoryBtn, inventoryBtn);
         });
@@ -289,6 +332,13 @@ public class MainFrame extends JFrame {
             }
         }
 
+        PrintServiceRegistry registry = PrintServiceRegistry.getInstance();
+        message.append(String.format("\nPrinter lookup: %d lookup(s), last %.0f ms, average %.0f ms, max %.0f ms\n",
+                registry.getLookupCount(), registry.getLastLookupMillis(), registry.getAverageLookupMillis(),
+                registry.getMaxLookupMillis()));
+
+        message.append("Receipts are sent to: " + System.getProperty(ReceiptSink.SINK_PROPERTY, "printer") + "\n");
+
         message.append("\nDo you want to print a test receipt?");
 
         int result = JOptionPane.showConfirmDialog(this,
@@ -298,8 +348,7 @@ public class MainFrame extends JFrame {
                 JOptionPane.QUESTION_MESSAGE);
 
         if (result == JOptionPane.YES_OPTION) {
-            try {
-                ReceiptPrinter printer = new ReceiptPrinter();
+            try (ReceiptPrinter printer = new ReceiptPrinter()) {
                 printer.testPrint();
                 JOptionPane.showMessageDialog(this,
                         "Test print sent successfully!\nCheck your printer.",
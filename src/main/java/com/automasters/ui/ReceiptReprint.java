@@ -0,0 +1,52 @@
+package com.automasters.ui;
+
+import com.automasters.dao.DAOExecutor;
+import com.automasters.entity.Invoice;
+import com.automasters.util.ReceiptPrinter;
+import com.automasters.util.ReceiptSpooler;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reprints saved invoices as a single print job. The invoices are loaded and their receipts written one
+ * after another, each with its own paper cut, into one spool file off the EDT. The receipt spooler then
+ * sends the whole batch to the printer at once, instead of one print job per invoice.
+ */
+public class ReceiptReprint {
+
+    private ReceiptReprint() {
+    }
+
+    /**
+     * Load the invoices with loader on the DAO executor and queue their receipts; the outcome is shown
+     * over parent. Must be called on the EDT.
+     */
+    public static void submit(Component parent, LatestRequest request, String jobName,
+            Supplier<List<Invoice>> loader) {
+        request.submit(DAOExecutor.supplyAsync(() -> {
+            List<Invoice> invoices = loader.get();
+            if (!invoices.isEmpty()) {
+                try {
+                    ReceiptSpooler.getInstance().submit(jobName, out -> ReceiptPrinter.writeReceipts(invoices, out));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return invoices.size();
+        }), count -> {
+            if (count == 0) {
+                JOptionPane.showMessageDialog(parent, "No invoices to print.", "Info",
+                        JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(parent, count + " receipt(s) sent to the printer.", "Success",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+        }, e -> JOptionPane.showMessageDialog(parent, "Error printing receipts: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
+    }
+}
@@ -0,0 +1,166 @@
+package com.automasters.ui;
+
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs report exports in the background, a few at a time, and reports their progress on the EDT.
+ * Exports queue up behind each other and can be cancelled while queued or running.
+ */
+public class ReportExportQueue {
+
+    // Each running export holds a database connection while it streams rows, so keep most of the
+    // connection pool, and the spare cores, for the screens
+    private static final int WORKERS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final ExecutorService executor = createExecutor();
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "report-export-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(WORKERS, WORKERS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Work done by an export; runs on an export thread
+     */
+    public interface Task {
+        /**
+         * @return false if there was nothing to export
+         */
+        boolean run(Job job) throws Exception;
+    }
+
+    /**
+     * Queue a task. onChange is called on the EDT whenever the job's state or progress changes.
+     */
+    public static Job submit(String name, Task task, Consumer<Job> onChange) {
+        Job job = new Job(name, onChange);
+        FutureTask<Void> future = new FutureTask<>(() -> {
+            job.run(task);
+            return null;
+        });
+        job.future = future;
+        executor.execute(future);
+        return job;
+    }
+
+    public static final class Job {
+        public enum State { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+        private final String name;
+        private final Consumer<Job> onChange;
+        private volatile FutureTask<Void> future;
+        private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+        private volatile double progress;
+        private volatile boolean cancelRequested;
+        private volatile Throwable error;
+        private volatile boolean hasOutput;
+
+        private Job(String name, Consumer<Job> onChange) {
+            this.name = name;
+            this.onChange = onChange;
+        }
+
+        private void run(Task task) {
+            if (!state.compareAndSet(State.QUEUED, State.RUNNING)) {
+                return; // Cancelled while queued
+            }
+            fireChange();
+            try {
+                hasOutput = task.run(this);
+                // A cancel that came after the last progress update was too late: the export is written
+                finish(State.DONE, null);
+            } catch (CancellationException e) {
+                finish(State.CANCELLED, null);
+            } catch (Exception e) {
+                finish(State.FAILED, e);
+            }
+        }
+
+        private void finish(State finalState, Throwable failure) {
+            error = failure;
+            if (finalState == State.DONE) {
+                progress = 1;
+            }
+            state.set(finalState);
+            fireChange();
+        }
+
+        /**
+         * Called by the task with its progress from 0 to 1
+         *
+         * @return false once the job has been cancelled; the task should then stop
+         */
+        public boolean setProgress(double progress) {
+            this.progress = progress;
+            fireChange();
+            return !cancelRequested;
+        }
+
+        /**
+         * Stop the job: a queued job never starts, a running one stops at its next progress update.
+         * A job that finishes without another progress update still ends up DONE.
+         */
+        public void cancel() {
+            cancelRequested = true;
+            if (state.compareAndSet(State.QUEUED, State.CANCELLED)) {
+                future.cancel(false);
+                fireChange();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelRequested;
+        }
+
+        public boolean isFinished() {
+            State current = state.get();
+            return current == State.DONE || current == State.FAILED || current == State.CANCELLED;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public State getState() {
+            return state.get();
+        }
+
+        public double getProgress() {
+            return progress;
+        }
+
+        /**
+         * Whether a finished job exported anything
+         */
+        public boolean hasOutput() {
+            return hasOutput;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        private void fireChange() {
+            SwingUtilities.invokeLater(() -> onChange.accept(this));
+        }
+    }
+}
@@ -3,15 +3,11 @@ package com.automasters.ui;
 import com.automasters.dao.ItemDAO;
 import com.automasters.dao.StockTransactionDAO;
 import com.automasters.entity.Item;
-import com.automasters.entity.StockTransaction;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 public class StockHistoryPanel extends JPanel {
 
@@ -19,10 +15,10 @@ public class StockHistoryPanel extends JPanel {
     private JComboBox<String> itemComboBox;
     private JComboBox<String> typeComboBox;
     private JTable historyTable;
-    private DefaultTableModel tableModel;
+    private TransactionTableModel tableModel;
     private StockTransactionDAO transactionDAO;
     private ItemDAO itemDAO;
-    private DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private final LatestRequest searchRequest = new LatestRequest();
 
     public StockHistoryPanel() {
         transactionDAO = new StockTransactionDAO();
@@ -149,13 +145,10 @@ public class StockHistoryPanel extends JPanel {
         panel.add(titleLabel, BorderLayout.NORTH);
 
         // Table
-        String[] columns = { "Date", "Item", "Type", "Quantity", "Buy Price", "Sell Price", "Batch Ref" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Rows are fetched page by page as the table scrolls
+        tableModel = new TransactionTableModel(transactionDAO,
+                e -> JOptionPane.showMessageDialog(this, "Error loading transactions: " + e.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
 
         historyTable = new JTable(tableModel);
         historyTable.setFont(new Font("Segoe UI", Font.PLAIN, 13));
@@ -199,8 +192,7 @@ public class StockHistoryPanel extends JPanel {
             return;
         }
 
-        try {
-            List<Item> items = itemDAO.searchItems(searchTerm);
+        searchRequest.submit(itemDAO.searchItemsAsync(searchTerm), items -> {
             itemComboBox.removeAllItems();
             itemComboBox.addItem("All Items");
 
@@ -211,41 +203,29 @@ public class StockHistoryPanel extends JPanel {
             if (!items.isEmpty()) {
                 itemComboBox.setSelectedIndex(1); // Select first found item
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error searching items: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> JOptionPane.showMessageDialog(this, "Error searching items: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     private void filterTransactions() {
-        tableModel.setRowCount(0);
-
-        try {
-            List<StockTransaction> transactions;
-            String selectedItem = (String) itemComboBox.getSelectedItem();
-            String selectedType = (String) typeComboBox.getSelectedItem();
-
-            if (selectedItem != null && !selectedItem.equals("All Items")) {
-                Item item = itemDAO.findByName(selectedItem);
-                if (item != null) {
-                    if (selectedType != null && !selectedType.equals("All")) {
-                        transactions = transactionDAO.findByItemAndType(item, selectedType);
-                    } else {
-                        transactions = transactionDAO.findByItem(item);
-                    }
+        String selectedItem = (String) itemComboBox.getSelectedItem();
+        String selectedType = (String) typeComboBox.getSelectedItem();
+
+        if (selectedItem != null && !selectedItem.equals("All Items")) {
+            Item item = itemDAO.findByName(selectedItem);
+            if (item != null) {
+                if (selectedType != null && !selectedType.equals("All")) {
+                    tableModel.setFilter(item, selectedType);
                 } else {
-                    transactions = transactionDAO.findAll();
+                    tableModel.setFilter(item, null);
                 }
-            } else if (selectedType != null && !selectedType.equals("All")) {
-                transactions = transactionDAO.findByType(selectedType);
-            } else {
-                transactions = transactionDAO.findAll();
+                return;
             }
-
-            displayTransactions(transactions);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error filtering transactions: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            tableModel.setFilter(null, null);
+        } else if (selectedType != null && !selectedType.equals("All")) {
+            tableModel.setFilter(null, selectedType);
+        } else {
+            tableModel.setFilter(null, null);
         }
     }
 
@@ -255,28 +235,7 @@ public class StockHistoryPanel extends JPanel {
     }
 
     private void loadAllTransactions() {
-        tableModel.setRowCount(0);
-        try {
-            List<StockTransaction> transactions = transactionDAO.findAll();
-            displayTransactions(transactions);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading transactions: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private void displayTransactions(List<StockTransaction> transactions) {
-        for (StockTransaction tx : transactions) {
-            tableModel.addRow(new Object[] {
-                    tx.getTransactionDate().format(formatter),
-                    tx.getItem().getItemName(),
-                    tx.getTransactionType(),
-                    tx.getQuantity(),
-                    tx.getBuyPrice() != null ? String.format("Rs.%.2f", tx.getBuyPrice()) : "-",
-                    tx.getSellPrice() != null ? String.format("Rs.%.2f", tx.getSellPrice()) : "-",
-                    tx.getBatchReference() != null ? tx.getBatchReference() : "-"
-            });
-        }
+        tableModel.setFilter(null, null);
     }
 
     private void resetFilters() {
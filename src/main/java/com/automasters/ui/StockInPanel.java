@@ -304,13 +304,11 @@ public class StockInPanel extends JPanel {
 
             StockBatch batch = new StockBatch(selectedItem, quantity, buyPrice, sellPrice,
                     batchRef.isEmpty() ? null : batchRef);
-            stockBatchDAO.save(batch);
 
-            // Log transaction
+            // Save batch, log transaction and update stock on hand together
             com.automasters.entity.StockTransaction transaction = new com.automasters.entity.StockTransaction(
                     selectedItem, "STOCK_IN", quantity, buyPrice, sellPrice, batchRef.isEmpty() ? null : batchRef);
-            com.automasters.dao.StockTransactionDAO transactionDAO = new com.automasters.dao.StockTransactionDAO();
-            transactionDAO.save(transaction);
+            stockBatchDAO.receiveStock(batch, transaction);
 
             JOptionPane.showMessageDialog(this,
                     String.format("Stock added successfully!\n%d units of '%s' @ Rs.%.2f buy / Rs.%.2f sell",
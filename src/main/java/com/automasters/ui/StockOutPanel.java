@@ -284,14 +284,10 @@ public class StockOutPanel extends JPanel {
             // Calculate remaining before reduction
             int remainingQty = batch.getQuantity() - qtyToUse;
 
-            // Reduce stock
-            stockBatchDAO.reduceQuantity(batch, qtyToUse);
-
-            // Log transaction
+            // Reduce stock, log transaction and update stock on hand together
             com.automasters.entity.StockTransaction transaction = new com.automasters.entity.StockTransaction(
                     selectedItem, "STOCK_OUT", qtyToUse);
-            com.automasters.dao.StockTransactionDAO transactionDAO = new com.automasters.dao.StockTransactionDAO();
-            transactionDAO.save(transaction);
+            stockBatchDAO.issueStock(batch, qtyToUse, transaction);
 
             JOptionPane.showMessageDialog(this,
                     String.format("Successfully used %d units from batch.\nRemaining: %d",
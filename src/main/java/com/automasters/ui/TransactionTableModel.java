@@ -0,0 +1,180 @@
+package com.automasters.ui;
+
+import com.automasters.dao.StockTransactionDAO;
+import com.automasters.dto.TransactionRow;
+import com.automasters.entity.Item;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Stock history table model that loads transactions a page at a time as the table scrolls.
+ * Pages come from StockTransactionDAO.findRowsPage, each starting after the last row of the page
+ * before it. The table grows by one page whenever its last rows are painted; only the most recently
+ * used pages are kept, the rest are fetched again from their remembered starting point when needed.
+ * Must be used on the EDT.
+ */
+public class TransactionTableModel extends AbstractTableModel {
+
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 10;
+
+    private static final String[] COLUMNS = { "Date", "Item", "Type", "Quantity", "Buy Price", "Sell Price",
+            "Batch Ref" };
+
+    private final StockTransactionDAO transactionDAO;
+    private final Consumer<Throwable> onError;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private Item item;
+    private String transactionType;
+    // Bumped on every filter change so pages loaded for an old filter are dropped
+    private long generation;
+
+    // Cursor (last row of the previous page) for every page reached so far; null for page 0
+    private final List<TransactionRow> pageStarts = new ArrayList<>();
+    private final Map<Integer, List<TransactionRow>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<TransactionRow>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    private int rowCount;
+    private boolean exhausted;
+    // Set when a load fails, so painting does not keep retrying until the filter changes
+    private boolean failed;
+
+    public TransactionTableModel(StockTransactionDAO transactionDAO, Consumer<Throwable> onError) {
+        this.transactionDAO = transactionDAO;
+        this.onError = onError;
+    }
+
+    /**
+     * Show transactions for the given item and type (null for any) from the newest one
+     */
+    public void setFilter(Item item, String transactionType) {
+        this.item = item;
+        this.transactionType = transactionType;
+        generation++;
+        pageStarts.clear();
+        cache.clear();
+        loading.clear();
+        rowCount = 0;
+        exhausted = false;
+        failed = false;
+        fireTableDataChanged();
+
+        pageStarts.add(null);
+        loadPage(0);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / PAGE_SIZE;
+        // Painting the last loaded page pulls in the next one
+        if (!exhausted && page == pageStarts.size() - 1) {
+            loadNextPage();
+        }
+
+        List<TransactionRow> rows = cache.get(page);
+        if (rows == null) {
+            loadPage(page);
+            return null;
+        }
+        int offset = rowIndex % PAGE_SIZE;
+        if (offset >= rows.size()) {
+            return null; // Page shrank since it was first loaded
+        }
+
+        TransactionRow tx = rows.get(offset);
+        switch (columnIndex) {
+            case 0:
+                return tx.transactionDate().format(formatter);
+            case 1:
+                return tx.itemName();
+            case 2:
+                return tx.transactionType();
+            case 3:
+                return tx.quantity();
+            case 4:
+                return tx.buyPrice() != null ? String.format("Rs.%.2f", tx.buyPrice()) : "-";
+            case 5:
+                return tx.sellPrice() != null ? String.format("Rs.%.2f", tx.sellPrice()) : "-";
+            default:
+                return tx.batchReference() != null ? tx.batchReference() : "-";
+        }
+    }
+
+    private void loadNextPage() {
+        int last = pageStarts.size() - 1;
+        List<TransactionRow> rows = cache.get(last);
+        if (rows == null || rows.size() < PAGE_SIZE) {
+            return; // Still loading, or the last page is the end
+        }
+        pageStarts.add(rows.get(rows.size() - 1));
+        loadPage(last + 1);
+    }
+
+    private void loadPage(int page) {
+        if (failed || !loading.add(page)) {
+            return;
+        }
+        long requestGeneration = generation;
+        transactionDAO.findRowsPageAsync(item, transactionType, pageStarts.get(page), PAGE_SIZE)
+                .whenComplete((rows, error) -> SwingUtilities.invokeLater(() -> {
+                    if (requestGeneration != generation) {
+                        return; // Filter changed meanwhile
+                    }
+                    loading.remove(page);
+                    if (error != null) {
+                        failed = true;
+                        onError.accept(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error);
+                        return;
+                    }
+                    pageLoaded(page, rows);
+                }));
+    }
+
+    private void pageLoaded(int page, List<TransactionRow> rows) {
+        cache.put(page, rows);
+        int firstRow = page * PAGE_SIZE;
+        if (page == pageStarts.size() - 1 && firstRow >= rowCount) {
+            // A new page at the end of the table
+            exhausted = rows.size() < PAGE_SIZE;
+            if (!rows.isEmpty()) {
+                rowCount = firstRow + rows.size();
+                fireTableRowsInserted(firstRow, rowCount - 1);
+            }
+        } else if (firstRow < rowCount) {
+            // A page that had been evicted and was fetched again
+            fireTableRowsUpdated(firstRow, Math.min(firstRow + PAGE_SIZE, rowCount) - 1);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.automasters.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Burkhard-Keller tree over strings using Levenshtein distance (keys are compared as given).
+ * Finds every value whose key is within a given edit distance of a query without comparing
+ * against all keys. Values with the same key share a node; removing the last value leaves the
+ * node in place as a routing node. Values are removed by value rather than by key, so a value
+ * whose key has changed since it was added can still be removed.
+ */
+public class BKTree<T> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<T, Node<T>> nodesByValue = new HashMap<>();
+    private Node<T> root;
+
+    public record Match<T>(String key, T value, int distance) {
+    }
+
+    public void add(String key, T value) {
+        lock.writeLock().lock();
+        try {
+            if (root == null) {
+                root = new Node<>(key);
+                addValue(root, value);
+                return;
+            }
+            Node<T> node = root;
+            while (true) {
+                int distance = StringSimilarity.boundedDistance(key, node.key, Integer.MAX_VALUE);
+                if (distance == 0) {
+                    addValue(node, value);
+                    return;
+                }
+                Node<T> child = node.children.get(distance);
+                if (child == null) {
+                    child = new Node<>(key);
+                    addValue(child, value);
+                    node.children.put(distance, child);
+                    node.maxChildDistance = Math.max(node.maxChildDistance, distance);
+                    return;
+                }
+                node = child;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addValue(Node<T> node, T value) {
+        Node<T> previous = nodesByValue.put(value, node);
+        if (previous != null) {
+            previous.values.remove(value);
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Remove a value. Returns false if it was not in the tree.
+     */
+    public boolean remove(T value) {
+        lock.writeLock().lock();
+        try {
+            Node<T> node = nodesByValue.remove(value);
+            return node != null && node.values.remove(value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * All values whose key is at most maxDistance edits away from query
+     */
+    public List<Match<T>> search(String query, int maxDistance) {
+        List<Match<T>> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (root == null) {
+                return matches;
+            }
+            Deque<Node<T>> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node<T> node = pending.pop();
+                // Beyond maxDistance + maxChildDistance neither the node nor any child can match
+                int distance = StringSimilarity.boundedDistance(query, node.key,
+                        maxDistance + node.maxChildDistance);
+                if (distance <= maxDistance) {
+                    for (T value : node.values) {
+                        matches.add(new Match<>(node.key, value, distance));
+                    }
+                }
+                // Triangle inequality: only children at distance-maxDistance..distance+maxDistance can match
+                for (Map.Entry<Integer, Node<T>> child : node.children.entrySet()) {
+                    if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                        pending.push(child.getValue());
+                    }
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodesByValue.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class Node<T> {
+        final String key;
+        final List<T> values = new ArrayList<>(1);
+        final Map<Integer, Node<T>> children = new HashMap<>(4);
+        int maxChildDistance;
+
+        Node(String key) {
+            this.key = key;
+        }
+    }
+}
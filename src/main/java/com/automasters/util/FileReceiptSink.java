@@ -0,0 +1,57 @@
+package com.automasters.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends receipts to a file, one after another, e.g. to keep a copy of everything printed or to test
+ * without a printer. The file can be sent to a printer later as a raw job. A receipt that cannot be
+ * written in full is cut off again, so sending it again does not leave half a copy in the file.
+ */
+public class FileReceiptSink implements ReceiptSink {
+
+    private final Path file;
+    private FileChannel channel;
+
+    public FileReceiptSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void send(byte[] receipt) throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(receipt);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            try {
+                channel.truncate(size);
+            } catch (IOException truncateFailed) {
+                e.addSuppressed(truncateFailed);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "file:" + file;
+    }
+}
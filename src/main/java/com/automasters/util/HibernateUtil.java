@@ -1,31 +1,117 @@
 package com.automasters.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
 
 /**
  * Utility class for Hibernate SessionFactory management.
+ * Connections come from a HikariCP pool configured by the hibernate.hikari.* properties.
  */
 public class HibernateUtil {
 
+    private static final String HIKARI_PREFIX = "hibernate.hikari.";
+
+    private static final ConnectionPoolMetrics poolMetrics = new ConnectionPoolMetrics();
+    private static HikariDataSource dataSource;
     private static final SessionFactory sessionFactory = buildSessionFactory();
 
     private static SessionFactory buildSessionFactory() {
         try {
             // Create the SessionFactory from hibernate.cfg.xml
-            return new Configuration().configure().buildSessionFactory();
+            Configuration configuration = new Configuration().configure();
+            applySystemPropertyOverrides(configuration);
+            dataSource = createDataSource(configuration.getProperties());
+
+            // Hibernate borrows connections from the pool instead of its built-in one.
+            // The raw connection settings must go, otherwise Hibernate calls getConnection(user, password).
+            Map<String, Object> settings = configuration.getStandardServiceRegistryBuilder().getSettings();
+            for (String key : new String[] { JdbcSettings.JAKARTA_JDBC_URL, JdbcSettings.JAKARTA_JDBC_USER,
+                    JdbcSettings.JAKARTA_JDBC_PASSWORD, JdbcSettings.JAKARTA_JDBC_DRIVER }) {
+                configuration.getProperties().remove(key);
+                settings.remove(key);
+            }
+            DatasourceConnectionProviderImpl connectionProvider = new DatasourceConnectionProviderImpl();
+            connectionProvider.setDataSource(dataSource);
+            configuration.getProperties().put(JdbcSettings.CONNECTION_PROVIDER, connectionProvider);
+
+            SessionFactory factory = configuration.buildSessionFactory();
+            warmUp(factory);
+            return factory;
         } catch (Throwable ex) {
             System.err.println("Initial SessionFactory creation failed: " + ex);
+            if (dataSource != null) {
+                dataSource.close();
+            }
             throw new ExceptionInInitializerError(ex);
         }
     }
 
+    /**
+     * hibernate.* and jakarta.persistence.* system properties win over hibernate.cfg.xml,
+     * e.g. -Djakarta.persistence.jdbc.url=... to run benchmarks against a scratch database
+     */
+    private static void applySystemPropertyOverrides(Configuration configuration) {
+        Properties system = System.getProperties();
+        for (String key : system.stringPropertyNames()) {
+            if (key.startsWith("hibernate.") || key.startsWith("jakarta.persistence.")) {
+                configuration.setProperty(key, system.getProperty(key));
+            }
+        }
+    }
+
+    private static HikariDataSource createDataSource(Properties properties) {
+        Properties hikariProperties = new Properties();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(HIKARI_PREFIX)) {
+                hikariProperties.setProperty(key.substring(HIKARI_PREFIX.length()), properties.getProperty(key));
+            }
+        }
+
+        HikariConfig config = new HikariConfig(hikariProperties);
+        config.setJdbcUrl(properties.getProperty(JdbcSettings.JAKARTA_JDBC_URL));
+        config.setUsername(properties.getProperty(JdbcSettings.JAKARTA_JDBC_USER));
+        config.setPassword(properties.getProperty(JdbcSettings.JAKARTA_JDBC_PASSWORD));
+        String driverClass = properties.getProperty(JdbcSettings.JAKARTA_JDBC_DRIVER);
+        if (driverClass != null) {
+            config.setDriverClassName(driverClass);
+        }
+        config.setMetricsTrackerFactory(poolMetrics);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Borrow and validate a pooled connection so the first DAO call doesn't pay the connect cost
+     */
+    private static void warmUp(SessionFactory factory) {
+        try (Session session = factory.openSession()) {
+            session.doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+            });
+        }
+    }
+
     public static SessionFactory getSessionFactory() {
         return sessionFactory;
     }
 
+    public static ConnectionPoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
     public static void shutdown() {
         // Close caches and connection pools
         getSessionFactory().close();
+        dataSource.close();
     }
 }
@@ -1,41 +1,79 @@
 package com.automasters.util;
 
-import com.automasters.entity.Invoice;
-import com.automasters.entity.InvoiceItem;
+import com.automasters.dto.InvoiceReportRow;
+import com.automasters.dto.RevenueReport;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
 
 import java.awt.Color;
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
 
+/**
+ * Writes the PDF reports. Invoice lists are read from a stream and written to the file in chunks of
+ * FLUSH_ROWS rows (PdfPTable.setComplete(false)), so memory use does not grow with the number of invoices.
+ */
 public class PDFReportGenerator {
 
     private static final Font TITLE_FONT = new Font(Font.HELVETICA, 18, Font.BOLD, new Color(30, 41, 59));
     private static final Font SUBTITLE_FONT = new Font(Font.HELVETICA, 12, Font.NORMAL, Color.GRAY);
+    private static final Font SECTION_FONT = new Font(Font.HELVETICA, 13, Font.BOLD, new Color(30, 41, 59));
     private static final Font HEADER_FONT = new Font(Font.HELVETICA, 10, Font.BOLD, Color.WHITE);
     private static final Font CELL_FONT = new Font(Font.HELVETICA, 10, Font.NORMAL, Color.BLACK);
+    private static final Font LABEL_FONT = new Font(Font.HELVETICA, 10, Font.BOLD, Color.BLACK);
+    private static final Font FOOTER_FONT = new Font(Font.HELVETICA, 8, Font.ITALIC, Color.GRAY);
     private static final Color HEADER_BG_COLOR = new Color(59, 130, 246);
+    private static final Color LABEL_BG_COLOR = new Color(240, 240, 240);
 
-    public static void generateDailyReport(List<Invoice> invoices, LocalDate date, String filePath) throws IOException {
+    // Invoice table rows held before they are written out
+    private static final int FLUSH_ROWS = 100;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
+    /**
+     * Told how many invoice rows have been written so far, after every chunk
+     */
+    public interface Progress {
+        Progress NONE = rows -> true;
+
+        /**
+         * @return false to stop; the generator then throws CancellationException
+         */
+        boolean rowsWritten(int rows);
+    }
+
+    /**
+     * Report for one day: totals and the day's invoices.
+     * The totals come from the report, the invoices are written as the stream supplies them.
+     */
+    public static void generateDailyReport(RevenueReport report, Stream<InvoiceReportRow> invoices, String filePath)
+            throws IOException {
+        generateDailyReport(report, invoices, filePath, Progress.NONE);
+    }
+
+    public static void generateDailyReport(RevenueReport report, Stream<InvoiceReportRow> invoices, String filePath,
+            Progress progress) throws IOException {
         Document document = new Document(PageSize.A4);
         try {
-            PdfWriter.getInstance(document, new FileOutputStream(filePath));
+            PdfWriter.getInstance(document, new BufferedOutputStream(new FileOutputStream(filePath)));
             document.open();
 
             // Header
-            addHeader(document, date);
+            addHeader(document, "Daily Invoice Report",
+                    "Date: " + report.startDate().format(DateTimeFormatter.ofPattern("MMMM dd, yyyy")));
 
             // Summary Table
-            addSummaryTable(document, invoices);
+            addSummaryTable(document, report);
 
             // Invoice List Table
-            addInvoiceTable(document, invoices);
+            addInvoiceTable(document, invoices, false, progress);
 
             // Footer
             addFooter(document);
@@ -47,90 +85,196 @@ public class PDFReportGenerator {
         }
     }
 
-    private static void addHeader(Document document, LocalDate date) throws DocumentException {
-        Paragraph title = new Paragraph("Daily Invoice Report", TITLE_FONT);
+    /**
+     * Revenue report for a week, month, quarter or year: totals, breakdowns by day, service and vehicle,
+     * then every invoice of the period as the stream supplies them
+     */
+    public static void generatePeriodReport(RevenueReport report, Stream<InvoiceReportRow> invoices, String filePath)
+            throws IOException {
+        generatePeriodReport(report, invoices, filePath, Progress.NONE);
+    }
+
+    public static void generatePeriodReport(RevenueReport report, Stream<InvoiceReportRow> invoices, String filePath,
+            Progress progress) throws IOException {
+        Document document = new Document(PageSize.A4);
+        try {
+            PdfWriter.getInstance(document, new BufferedOutputStream(new FileOutputStream(filePath)));
+            document.open();
+
+            addHeader(document, "Revenue Report",
+                    report.period() + ": " + report.period().describe(report.startDate()));
+            addSummaryTable(document, report);
+
+            addSection(document, "By Day");
+            PdfPTable byDay = createTable(new String[] { "Date", "Invoices", "Lines", "Amount" },
+                    new float[] { 3, 2, 2, 3 });
+            for (RevenueReport.DayTotal day : report.byDay()) {
+                byDay.addCell(createCell(day.date().format(DATE_FORMATTER), false));
+                byDay.addCell(createNumberCell(String.valueOf(day.invoiceCount())));
+                byDay.addCell(createNumberCell(String.valueOf(day.lineCount())));
+                byDay.addCell(createNumberCell(String.format("%.2f", day.totalAmount())));
+            }
+            document.add(byDay);
+
+            addSection(document, "By Service");
+            PdfPTable byService = createTable(new String[] { "Service", "Lines", "Amount" }, new float[] { 6, 2, 3 });
+            for (RevenueReport.ServiceTotal service : report.byService()) {
+                byService.addCell(createCell(service.description(), false));
+                byService.addCell(createNumberCell(String.valueOf(service.lineCount())));
+                byService.addCell(createNumberCell(String.format("%.2f", service.totalAmount())));
+            }
+            document.add(byService);
+
+            addSection(document, "By Vehicle");
+            PdfPTable byVehicle = createTable(new String[] { "Vehicle", "Invoices", "Last Visit", "Amount" },
+                    new float[] { 3, 2, 3, 3 });
+            for (RevenueReport.VehicleTotal vehicle : report.byVehicle()) {
+                byVehicle.addCell(createCell(vehicle.vehicleNumber(), false));
+                byVehicle.addCell(createNumberCell(String.valueOf(vehicle.invoiceCount())));
+                byVehicle.addCell(createCell(vehicle.lastVisit().format(DATE_FORMATTER), false));
+                byVehicle.addCell(createNumberCell(String.format("%.2f", vehicle.totalAmount())));
+            }
+            document.add(byVehicle);
+
+            addSection(document, "Invoices");
+            addInvoiceTable(document, invoices, true, progress);
+
+            addFooter(document);
+
+        } catch (DocumentException e) {
+            throw new IOException("Error generating PDF report", e);
+        } finally {
+            document.close();
+        }
+    }
+
+    private static void addHeader(Document document, String titleText, String subtitleText)
+            throws DocumentException {
+        Paragraph title = new Paragraph(titleText, TITLE_FONT);
         title.setAlignment(Element.ALIGN_CENTER);
         document.add(title);
 
-        String dateStr = date.format(DateTimeFormatter.ofPattern("MMMM dd, yyyy"));
-        Paragraph subtitle = new Paragraph("Date: " + dateStr, SUBTITLE_FONT);
+        Paragraph subtitle = new Paragraph(subtitleText, SUBTITLE_FONT);
         subtitle.setAlignment(Element.ALIGN_CENTER);
         subtitle.setSpacingAfter(20);
         document.add(subtitle);
     }
 
-    private static void addSummaryTable(Document document, List<Invoice> invoices) throws DocumentException {
-        double totalIncome = invoices.stream().mapToDouble(Invoice::getTotalAmount).sum();
-        int totalInvoices = invoices.size();
-
+    private static void addSummaryTable(Document document, RevenueReport report) throws DocumentException {
         PdfPTable table = new PdfPTable(2);
         table.setWidthPercentage(50);
         table.setSpacingAfter(20);
 
         table.addCell(createCell("Total Invoices:", true));
-        table.addCell(createCell(String.valueOf(totalInvoices), false));
+        table.addCell(createCell(String.valueOf(report.invoiceCount()), false));
         table.addCell(createCell("Total Income:", true));
-        table.addCell(createCell(String.format("LKR %.2f", totalIncome), false));
+        table.addCell(createCell(String.format("LKR %.2f", report.totalAmount()), false));
 
         document.add(table);
     }
 
-    private static void addInvoiceTable(Document document, List<Invoice> invoices) throws DocumentException {
-        PdfPTable table = new PdfPTable(5); // Num, Customer, Vehicle, Items, Amount
-        table.setWidthPercentage(100);
-        table.setWidths(new float[] { 2, 3, 2, 4, 2 });
+    private static void addSection(Document document, String heading) throws DocumentException {
+        Paragraph title = new Paragraph(heading, SECTION_FONT);
+        title.setSpacingBefore(15);
+        title.setSpacingAfter(5);
+        document.add(title);
+    }
+
+    /**
+     * Write the invoices as a table, adding it to the document every FLUSH_ROWS rows. An incomplete
+     * table only keeps the rows added since it was last added to the document.
+     */
+    private static void addInvoiceTable(Document document, Stream<InvoiceReportRow> invoices, boolean withDate,
+            Progress progress) throws DocumentException {
+        PdfPTable table = withDate
+                ? createTable(new String[] { "Date", "Invoice #", "Customer", "Vehicle", "Services", "Amount" },
+                        new float[] { 2, 2, 3, 2, 4, 2 })
+                : createTable(new String[] { "Invoice #", "Customer", "Vehicle", "Services", "Amount" },
+                        new float[] { 2, 3, 2, 4, 2 });
         table.setSpacingBefore(10);
+        table.setComplete(false);
 
-        // Headers
-        String[] headers = { "Invoice #", "Customer", "Vehicle", "Services", "Amount" };
-        for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, HEADER_FONT));
-            cell.setBackgroundColor(HEADER_BG_COLOR);
-            cell.setPadding(6);
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            table.addCell(cell);
-        }
+        // The table copies a cell when it is added, so one of each kind is enough
+        PdfPCell textCell = createCell("", false);
+        PdfPCell amountCell = createNumberCell("");
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
-        // Data
-        for (Invoice invoice : invoices) {
-            table.addCell(createCell(invoice.getInvoiceNumber(), false));
-            table.addCell(createCell(invoice.getCustomerName(), false));
-            table.addCell(createCell(invoice.getVehicleNumber(), false));
+        int rows = 0;
+        Iterator<InvoiceReportRow> iterator = invoices.iterator();
+        while (iterator.hasNext()) {
+            InvoiceReportRow invoice = iterator.next();
+            if (withDate) {
+                addCell(table, textCell, invoice.invoiceDate().format(dateFormatter));
+            }
+            addCell(table, textCell, invoice.invoiceNumber());
+            addCell(table, textCell, invoice.customerName());
+            addCell(table, textCell, invoice.vehicleNumber());
 
             // Summarize items
-            StringBuilder itemsStr = new StringBuilder();
-            List<InvoiceItem> items = invoice.getItems();
-            if (items != null && !items.isEmpty()) {
-                itemsStr.append(items.get(0).getDescription());
-                if (items.size() > 1) {
-                    itemsStr.append(" (+").append(items.size() - 1).append(" more)");
-                }
+            String services = "";
+            if (invoice.firstService() != null) {
+                services = invoice.serviceCount() > 1
+                        ? invoice.firstService() + " (+" + (invoice.serviceCount() - 1) + " more)"
+                        : invoice.firstService();
             }
-            table.addCell(createCell(itemsStr.toString(), false));
+            addCell(table, textCell, services);
+            addCell(table, amountCell, String.format("%.2f", invoice.totalAmount()));
 
-            PdfPCell amountCell = createCell(String.format("%.2f", invoice.getTotalAmount()), false);
-            amountCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-            table.addCell(amountCell);
+            if (++rows % FLUSH_ROWS == 0) {
+                document.add(table);
+                if (!progress.rowsWritten(rows)) {
+                    throw new CancellationException("Report cancelled");
+                }
+            }
         }
 
+        table.setComplete(true);
         document.add(table);
+        progress.rowsWritten(rows);
+    }
+
+    private static void addCell(PdfPTable table, PdfPCell template, String content) {
+        template.setPhrase(new Phrase(content, CELL_FONT));
+        table.addCell(template);
+    }
+
+    /**
+     * Full-width table with a header row, repeated on every page
+     */
+    private static PdfPTable createTable(String[] headers, float[] widths) throws DocumentException {
+        PdfPTable table = new PdfPTable(headers.length);
+        table.setWidthPercentage(100);
+        table.setWidths(widths);
+        for (String header : headers) {
+            PdfPCell cell = new PdfPCell(new Phrase(header, HEADER_FONT));
+            cell.setBackgroundColor(HEADER_BG_COLOR);
+            cell.setPadding(6);
+            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            table.addCell(cell);
+        }
+        table.setHeaderRows(1);
+        return table;
     }
 
     private static void addFooter(Document document) throws DocumentException {
-        Paragraph footer = new Paragraph("Generated by Sampath Auto Care Billing System",
-                new Font(Font.HELVETICA, 8, Font.ITALIC, Color.GRAY));
+        Paragraph footer = new Paragraph("Generated by Sampath Auto Care Billing System", FOOTER_FONT);
         footer.setAlignment(Element.ALIGN_CENTER);
         footer.setSpacingBefore(30);
         document.add(footer);
     }
 
     private static PdfPCell createCell(String content, boolean isHeader) {
-        PdfPCell cell = new PdfPCell(new Phrase(content,
-                isHeader ? new Font(CELL_FONT.getFamily(), CELL_FONT.getSize(), Font.BOLD) : CELL_FONT));
+        PdfPCell cell = new PdfPCell(new Phrase(content, isHeader ? LABEL_FONT : CELL_FONT));
         cell.setPadding(5);
         if (isHeader) {
-            cell.setBackgroundColor(new Color(240, 240, 240));
+            cell.setBackgroundColor(LABEL_BG_COLOR);
         }
         return cell;
     }
+
+    private static PdfPCell createNumberCell(String content) {
+        PdfPCell cell = createCell(content, false);
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        return cell;
+    }
 }
@@ -0,0 +1,56 @@
+package com.automasters.util;
+
+import javax.print.Doc;
+import javax.print.DocFlavor;
+import javax.print.DocPrintJob;
+import javax.print.PrintException;
+import javax.print.PrintService;
+import javax.print.SimpleDoc;
+import javax.print.attribute.HashPrintRequestAttributeSet;
+import javax.print.attribute.PrintRequestAttributeSet;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Sends receipts as raw print jobs to a javax.print printer found through PrintServiceRegistry
+ */
+public class PrintServiceReceiptSink implements ReceiptSink {
+
+    private final String printerName;
+
+    /**
+     * @param printerName part of the printer's name; null for the Epson receipt printer or the default printer
+     */
+    public PrintServiceReceiptSink(String printerName) {
+        this.printerName = printerName;
+    }
+
+    @Override
+    public void send(byte[] receipt) throws IOException {
+        PrintServiceRegistry registry = PrintServiceRegistry.getInstance();
+        PrintService printService = registry.find(printerName);
+
+        if (printService == null) {
+            registry.printFailed();
+            throw new IOException("Printer not found. Please check printer connection.");
+        }
+
+        DocPrintJob job = printService.createPrintJob();
+        DocFlavor flavor = DocFlavor.INPUT_STREAM.AUTOSENSE;
+        Doc doc = new SimpleDoc(new ByteArrayInputStream(receipt), flavor, null);
+        PrintRequestAttributeSet attrs = new HashPrintRequestAttributeSet();
+
+        try {
+            job.print(doc, attrs);
+        } catch (PrintException | RuntimeException e) {
+            // The cached printer may have been unplugged or renamed
+            registry.printFailed();
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return printerName != null ? "printer:" + printerName : "printer";
+    }
+}
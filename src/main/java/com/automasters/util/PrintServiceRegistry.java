@@ -0,0 +1,244 @@
+package com.automasters.util;
+
+import javax.print.PrintService;
+import javax.print.PrintServiceLookup;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the installed print services, so finding the receipt printer does not enumerate every printer
+ * (hundreds of milliseconds on a Windows spooler) for each receipt.
+ *
+ * The list is reloaded in the background every REFRESH_MINUTES, so printers plugged in or removed are
+ * picked up, and straight away after a print fails. Lookup times are recorded for the Test Printer dialog.
+ */
+public class PrintServiceRegistry {
+
+    private static final long REFRESH_MINUTES = 2;
+
+    private static PrintServiceRegistry instance;
+
+    /**
+     * Source of the installed print services
+     */
+    public interface Lookup {
+        Lookup SYSTEM = new Lookup() {
+            @Override
+            public PrintService[] services() {
+                return PrintServiceLookup.lookupPrintServices(null, null);
+            }
+
+            @Override
+            public PrintService defaultService() {
+                return PrintServiceLookup.lookupDefaultPrintService();
+            }
+        };
+
+        PrintService[] services();
+
+        PrintService defaultService();
+    }
+
+    /**
+     * One enumeration of the print services, with the printer chosen for each requested name
+     */
+    private static final class Snapshot {
+        final PrintService[] services;
+        final PrintService defaultService;
+        final Map<String, PrintService> resolved = new ConcurrentHashMap<>();
+
+        Snapshot(PrintService[] services, PrintService defaultService) {
+            this.services = services;
+            this.defaultService = defaultService;
+        }
+    }
+
+    private final Lookup lookup;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService refresher;
+
+    private final LongAdder lookupCount = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAccumulator maxLookupNanos = new LongAccumulator(Math::max, 0);
+    private volatile long lastLookupNanos;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder failureRefreshes = new LongAdder();
+
+    /**
+     * The registry of the system's print services, refreshed in the background
+     */
+    public static synchronized PrintServiceRegistry getInstance() {
+        if (instance == null) {
+            instance = new PrintServiceRegistry(Lookup.SYSTEM);
+            instance.startRefreshing();
+        }
+        return instance;
+    }
+
+    PrintServiceRegistry(Lookup lookup) {
+        this.lookup = lookup;
+    }
+
+    private void startRefreshing() {
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "print-service-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The first load also runs here, so the first receipt usually finds the list ready
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, REFRESH_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * The printer whose name contains printerName, otherwise the first Epson receipt printer,
+     * otherwise the default printer; null if there are no printers
+     */
+    public PrintService find(String printerName) {
+        Snapshot current = current();
+        String key = printerName != null ? printerName.toLowerCase() : "";
+        PrintService service = current.resolved.get(key);
+        if (service != null) {
+            cacheHits.increment();
+            return service;
+        }
+        service = choose(current, key);
+        if (service != null) {
+            current.resolved.put(key, service);
+        }
+        return service;
+    }
+
+    private static PrintService choose(Snapshot snapshot, String printerName) {
+        if (!printerName.isEmpty()) {
+            // Find specific printer
+            for (PrintService service : snapshot.services) {
+                if (service.getName().toLowerCase().contains(printerName)) {
+                    return service;
+                }
+            }
+        }
+
+        // Look for Epson printer
+        for (PrintService service : snapshot.services) {
+            String name = service.getName().toLowerCase();
+            if (name.contains("epson") || name.contains("tm-u220") || name.contains("tm-t")) {
+                return service;
+            }
+        }
+
+        // Return default printer
+        return snapshot.defaultService;
+    }
+
+    /**
+     * Names of the installed printers, as of the last refresh
+     */
+    public String[] getPrinterNames() {
+        PrintService[] services = current().services;
+        String[] names = new String[services.length];
+        for (int i = 0; i < services.length; i++) {
+            names[i] = services[i].getName();
+        }
+        return names;
+    }
+
+    /**
+     * Enumerate the print services again now
+     */
+    public void refresh() {
+        long start = System.nanoTime();
+        Snapshot loaded = new Snapshot(lookup.services(), lookup.defaultService());
+        long elapsed = System.nanoTime() - start;
+
+        lookupCount.increment();
+        lookupNanos.add(elapsed);
+        maxLookupNanos.accumulate(elapsed);
+        lastLookupNanos = elapsed;
+        snapshot = loaded;
+    }
+
+    /**
+     * Called when printing failed or no printer was found: the cached printer may have been removed or
+     * replaced, so reload the list in the background. Further failures before it runs add nothing.
+     */
+    public void printFailed() {
+        failureRefreshes.increment();
+        if (refresher == null) {
+            snapshot = null; // No background thread; the next find reloads
+        } else if (refreshQueued.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshQueued.set(false);
+                refreshQuietly();
+            });
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    refresh();
+                    current = snapshot;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void refreshQuietly() {
+        try {
+            synchronized (this) {
+                refresh();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Printer list refresh failed: " + e.getMessage());
+        }
+    }
+
+    public long getLookupCount() {
+        return lookupCount.sum();
+    }
+
+    /**
+     * Average time one enumeration of the print services took, in milliseconds
+     */
+    public double getAverageLookupMillis() {
+        long count = lookupCount.sum();
+        return count == 0 ? 0.0 : TimeUnit.NANOSECONDS.toMicros(lookupNanos.sum()) / 1000.0 / count;
+    }
+
+    public double getMaxLookupMillis() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLookupNanos.get()) / 1000.0;
+    }
+
+    public double getLastLookupMillis() {
+        return TimeUnit.NANOSECONDS.toMicros(lastLookupNanos) / 1000.0;
+    }
+
+    /**
+     * Number of finds answered without scanning the printer names
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getFailureRefreshes() {
+        return failureRefreshes.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lookups=%d avgLookup=%.1fms maxLookup=%.1fms lastLookup=%.1fms cacheHits=%d "
+                + "failureRefreshes=%d", getLookupCount(), getAverageLookupMillis(), getMaxLookupMillis(),
+                getLastLookupMillis(), getCacheHits(), getFailureRefreshes());
+    }
+}
@@ -0,0 +1,75 @@
+package com.automasters.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Where rendered ESC/POS receipts are sent: a javax.print printer, a network printer's raw port or a file.
+ * Chosen at startup with -Dautomasters.receipt.sink, see {@link #fromSpec(String)}.
+ */
+public interface ReceiptSink extends Closeable {
+
+    String SINK_PROPERTY = "automasters.receipt.sink";
+
+    /**
+     * Send one receipt; returns once the receiver has taken all of it
+     *
+     * @throws IOException if it could not be delivered. The receiver may already have taken part of it: a
+     *                     file sink takes that part back, but a printer may have printed it, so sending the
+     *                     receipt again can print its start (or the start of a batch) twice
+     */
+    void send(byte[] receipt) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * The sink configured with the automasters.receipt.sink system property, the receipt printer by default
+     */
+    static ReceiptSink configured() {
+        return fromSpec(System.getProperty(SINK_PROPERTY));
+    }
+
+    /**
+     * Sink for a setting of the form
+     * <ul>
+     * <li>empty or "printer" - the Epson receipt printer, or the default printer</li>
+     * <li>"printer:NAME" - the printer whose name contains NAME</li>
+     * <li>"tcp:HOST" or "tcp:HOST:PORT" - a network printer's raw port, 9100 by default</li>
+     * <li>"file:PATH" - append to a file</li>
+     * </ul>
+     */
+    static ReceiptSink fromSpec(String spec) {
+        if (spec == null || spec.isBlank() || spec.equals("printer")) {
+            return new PrintServiceReceiptSink(null);
+        }
+        int colon = spec.indexOf(':');
+        String type = colon > 0 ? spec.substring(0, colon) : spec;
+        String target = colon > 0 ? spec.substring(colon + 1) : "";
+        if (target.isEmpty()) {
+            throw new IllegalArgumentException("Receipt sink '" + spec + "' needs a target after '" + type + ":'");
+        }
+        switch (type) {
+            case "printer":
+                return new PrintServiceReceiptSink(target);
+            case "tcp":
+                int portColon = target.lastIndexOf(':');
+                if (portColon < 0) {
+                    return new SocketReceiptSink(target, SocketReceiptSink.RAW_PORT);
+                }
+                try {
+                    return new SocketReceiptSink(target.substring(0, portColon),
+                            Integer.parseInt(target.substring(portColon + 1)));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid port in receipt sink '" + spec + "'", e);
+                }
+            case "file":
+                return new FileReceiptSink(Paths.get(target));
+            default:
+                throw new IllegalArgumentException("Unknown receipt sink '" + spec
+                        + "', expected printer, printer:NAME, tcp:HOST[:PORT] or file:PATH");
+        }
+    }
+}
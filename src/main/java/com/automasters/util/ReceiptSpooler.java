@@ -0,0 +1,288 @@
+package com.automasters.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Prints rendered receipts on its own thread, in the order they were queued, so a slow or offline
+ * printer never holds up the screen that queued them.
+ *
+ * Each receipt is written to the spool directory (~/.automasters/spool) before it is queued and deleted
+ * once the printer has accepted it, so receipts still waiting when the application closes are printed on
+ * the next start. A receipt that fails is retried with a growing delay; later receipts wait behind it to
+ * keep the order.
+ */
+public class ReceiptSpooler {
+
+    private static final String SPOOL_SUFFIX = ".prn";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long INITIAL_RETRY_MILLIS = 2_000;
+    private static final long MAX_RETRY_MILLIS = 60_000;
+
+    private static ReceiptSpooler instance;
+
+    /**
+     * Queue length and printer state, sent to listeners after every change
+     */
+    public record Status(int pending, int failures, String lastError, long retryInMillis) {
+        public boolean isFailing() {
+            return failures > 0;
+        }
+    }
+
+    private final Path spoolDir;
+    private final ReceiptSink sink;
+    private final long initialRetryMillis;
+    // Spool files by name, i.e. by sequence number: the order they print in, and are replayed in after a restart
+    private final TreeSet<Path> queue = new TreeSet<>();
+    // Sequence numbers handed out to receipts still being written; later receipts wait for them
+    private final TreeSet<Long> writing = new TreeSet<>();
+    private final List<Consumer<Status>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread thread;
+    private long nextSequence;
+    private int failures;
+    private String lastError;
+    private long retryInMillis;
+    private boolean retryRequested;
+
+    /**
+     * The spooler printing to the configured receipt sink; started on first use
+     */
+    public static synchronized ReceiptSpooler getInstance() throws IOException {
+        if (instance == null) {
+            Path dir = Paths.get(System.getProperty("user.home"), ".automasters", "spool");
+            instance = new ReceiptSpooler(dir, ReceiptSink.configured());
+        }
+        return instance;
+    }
+
+    public ReceiptSpooler(Path spoolDir, ReceiptSink sink) throws IOException {
+        this(spoolDir, sink, INITIAL_RETRY_MILLIS);
+    }
+
+    ReceiptSpooler(Path spoolDir, ReceiptSink sink, long initialRetryMillis) throws IOException {
+        this.spoolDir = spoolDir;
+        this.sink = sink;
+        this.initialRetryMillis = initialRetryMillis;
+
+        // Pick up receipts left over from the last run; the zero-padded sequence keeps name order = queue order
+        Files.createDirectories(spoolDir);
+        List<Path> leftOver = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, "*" + SPOOL_SUFFIX)) {
+            for (Path file : files) {
+                leftOver.add(file);
+            }
+        }
+        // Receipts that were still being written when the application stopped were never queued
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, "*" + TEMP_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : leftOver) {
+            queue.add(file);
+            nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+        }
+
+        thread = new Thread(this::run, "receipt-spooler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Writes the content of a spool file, e.g. several receipts to be printed as one job
+     */
+    public interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Queue a rendered receipt. Returns once it is safely on disk; printing happens later.
+     *
+     * @param name shown in the spool file name, e.g. the invoice number
+     */
+    public void submit(String name, byte[] receipt) throws IOException {
+        submit(name, out -> out.write(receipt));
+    }
+
+    /**
+     * Queue one print job written by content, which is sent to the printer in one piece
+     */
+    public void submit(String name, Content content) throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = nextSequence++;
+            writing.add(sequence);
+        }
+        Path file = spoolDir.resolve(String.format("%012d-%s%s", sequence,
+                name.replaceAll("[^A-Za-z0-9_-]", "_"), SPOOL_SUFFIX));
+        // Write under a temporary name so a crash never leaves a half-written receipt in the queue.
+        // Receipts are written outside the lock, so one queued from another thread while a long batch is
+        // written is not held up; the spooler thread still prints them in sequence order.
+        Path temp = spoolDir.resolve(file.getFileName() + TEMP_SUFFIX);
+        boolean queued = false;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                content.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                queue.add(file);
+                queued = true;
+            }
+        } finally {
+            synchronized (this) {
+                writing.remove(sequence);
+                notifyAll();
+            }
+            if (!queued) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        fireChange();
+    }
+
+    /**
+     * Retry a failing receipt now instead of waiting for the next attempt
+     */
+    public synchronized void retryNow() {
+        retryRequested = true;
+        notifyAll();
+    }
+
+    /**
+     * Listeners are called on the spooler thread, or on the thread that queued a receipt
+     */
+    public void addListener(Consumer<Status> listener) {
+        listeners.add(listener);
+        listener.accept(getStatus());
+    }
+
+    public void removeListener(Consumer<Status> listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized Status getStatus() {
+        return new Status(queue.size(), failures, lastError, retryInMillis);
+    }
+
+    /**
+     * Stop the spooler thread and close the sink; receipts still queued stay in the spool directory
+     */
+    public void shutdown() throws InterruptedException {
+        thread.interrupt();
+        thread.join();
+        try {
+            sink.close();
+        } catch (IOException e) {
+            System.err.println("Could not close receipt sink " + sink + ": " + e.getMessage());
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Path file;
+                synchronized (this) {
+                    // Wait for a receipt, and for any receipt ahead of it that is still being written
+                    while (queue.isEmpty() || (!writing.isEmpty() && writing.first() < sequenceOf(queue.first()))) {
+                        wait();
+                    }
+                    file = queue.first();
+                }
+
+                byte[] receipt;
+                try {
+                    receipt = Files.readAllBytes(file);
+                } catch (NoSuchFileException e) {
+                    // Removed by hand from the spool directory
+                    printed(file);
+                    continue;
+                } catch (IOException e) {
+                    failed(e);
+                    continue;
+                }
+
+                try {
+                    sink.send(receipt);
+                } catch (IOException | RuntimeException e) {
+                    failed(e);
+                    continue;
+                }
+
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.err.println("Could not remove printed receipt " + file + ": " + e.getMessage());
+                }
+                printed(file);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void printed(Path file) {
+        synchronized (this) {
+            queue.remove(file);
+            failures = 0;
+            lastError = null;
+            retryInMillis = 0;
+        }
+        fireChange();
+    }
+
+    /**
+     * Wait before retrying: the first delay doubles with each failure in a row, up to MAX_RETRY_MILLIS
+     */
+    private void failed(Exception e) throws InterruptedException {
+        long delay;
+        synchronized (this) {
+            failures++;
+            lastError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            delay = Math.min(MAX_RETRY_MILLIS, initialRetryMillis << Math.min(failures - 1, 16));
+            retryInMillis = delay;
+            retryRequested = false;
+        }
+        fireChange();
+
+        synchronized (this) {
+            long until = System.currentTimeMillis() + delay;
+            long remaining = delay;
+            while (!retryRequested && remaining > 0) {
+                wait(remaining);
+                remaining = until - System.currentTimeMillis();
+            }
+            retryRequested = false;
+        }
+    }
+
+    private void fireChange() {
+        Status status = getStatus();
+        for (Consumer<Status> listener : listeners) {
+            listener.accept(status);
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        int dash = name.indexOf('-');
+        try {
+            return Long.parseLong(dash > 0 ? name.substring(0, dash) : name);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.automasters.util;
+
+import com.automasters.entity.Invoice;
+import com.automasters.entity.InvoiceItem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ESC/POS layout of the receipts for the Epson TM-U220D. Everything that is the same on every receipt
+ * (header, separators, footer, control codes) is encoded into byte arrays once; a render only writes the
+ * invoice's fields, padded to their columns, into a buffer that is reused between receipts.
+ *
+ * Text is encoded in code page 437, which is selected at the start of every receipt, so the bytes do not
+ * depend on the platform charset. Characters the code page lacks print as '?'.
+ *
+ * Not thread-safe: use one instance per thread.
+ */
+public class ReceiptTemplate {
+
+    // ESC/POS Commands
+    private static final byte[] INIT = { 0x1B, 0x40 }; // Initialize printer
+    private static final byte[] SELECT_CODE_PAGE = { 0x1B, 0x74, 0x00 }; // Character table PC437
+    private static final byte[] CUT_PAPER = { 0x1D, 0x56, 0x00 }; // Full cut
+    private static final byte[] FEED_LINE = { 0x0A }; // Line feed
+    private static final byte[] ALIGN_CENTER = { 0x1B, 0x61, 0x01 };
+    private static final byte[] ALIGN_LEFT = { 0x1B, 0x61, 0x00 };
+    private static final byte[] ALIGN_RIGHT = { 0x1B, 0x61, 0x02 };
+    private static final byte[] BOLD_ON = { 0x1B, 0x45, 0x01 };
+    private static final byte[] BOLD_OFF = { 0x1B, 0x45, 0x00 };
+    private static final byte[] DOUBLE_HEIGHT_ON = { 0x1B, 0x21, 0x10 };
+    private static final byte[] DOUBLE_SIZE_ON = { 0x1B, 0x21, 0x30 };
+    private static final byte[] NORMAL_SIZE = { 0x1B, 0x21, 0x00 };
+
+    private static final int LINE_WIDTH = 32; // Adjusted for 2.5 inch (approx 32 chars)
+    // Layout: Description (21) | Space (1) | Amount (10) = 32
+    private static final int DESCRIPTION_WIDTH = 21;
+    private static final int AMOUNT_WIDTH = 10;
+    // Width of the customer fields after their "Cust : " labels
+    private static final int FIELD_WIDTH = 22;
+
+    /** Code page 437 byte for every char, '?' where it has none */
+    private static final byte[] CODE_PAGE = buildCodePage();
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    private static final byte[] HEADER = segment(INIT, SELECT_CODE_PAGE,
+            // Header - Company name
+            ALIGN_CENTER, DOUBLE_HEIGHT_ON, BOLD_ON, "SAMPATH\n", "AUTO CARE\n", NORMAL_SIZE,
+            "Vehicle Service Center\n", line('-'), FEED_LINE,
+            // Invoice info
+            ALIGN_LEFT, BOLD_ON, "Invoice: ");
+    private static final byte[] BEFORE_DATE = segment("\n", BOLD_OFF, "Date: ");
+    private static final byte[] BEFORE_CUSTOMER = segment("\n", FEED_LINE, line('-'), "Cust : ");
+    private static final byte[] BEFORE_CONTACT = segment("\n", "Tel  : ");
+    private static final byte[] BEFORE_VEHICLE = segment("\n", BOLD_ON, "Veh  : ");
+    private static final byte[] BEFORE_MILEAGE = segment("\n", "Mil  : ");
+    private static final byte[] AFTER_MILEAGE = segment(" km");
+    private static final byte[] ITEMS_HEADER = segment("\n", BOLD_OFF, line('-'), FEED_LINE, BOLD_ON,
+            String.format("%-21s %10s\n", "Description", "Amount"), BOLD_OFF, line('-'));
+    private static final byte[] BEFORE_TOTAL = segment(line('-'), FEED_LINE, ALIGN_RIGHT, BOLD_ON,
+            DOUBLE_HEIGHT_ON, "TOTAL: ");
+    private static final byte[] FOOTER = segment("\n", NORMAL_SIZE, BOLD_OFF, FEED_LINE,
+            ALIGN_CENTER, line('-'), "Thank you!\n", "Visit us again\n", FEED_LINE, FEED_LINE, FEED_LINE,
+            CUT_PAPER);
+
+    private static final byte[] TEST_PAGE = segment(INIT, SELECT_CODE_PAGE, ALIGN_CENTER, DOUBLE_SIZE_ON,
+            "SAMPATH\n", "AUTO CARE\n", NORMAL_SIZE, "Printer Test\n", line('-'), "Printer is working!\n",
+            FEED_LINE, FEED_LINE, FEED_LINE, CUT_PAPER);
+
+    private byte[] buffer = new byte[1024];
+    private int length;
+    private final byte[] digits = new byte[24];
+
+    /**
+     * ESC/POS bytes of the invoice receipt
+     */
+    public byte[] render(Invoice invoice) {
+        fill(invoice);
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Write the invoice receipt to out without copying it, e.g. one receipt after another into a batch
+     */
+    public void writeTo(Invoice invoice, OutputStream out) throws IOException {
+        fill(invoice);
+        out.write(buffer, 0, length);
+    }
+
+    private void fill(Invoice invoice) {
+        length = 0;
+
+        put(HEADER);
+        put(String.valueOf(invoice.getInvoiceNumber()));
+        put(BEFORE_DATE);
+        putDateTime(invoice.getInvoiceDate());
+
+        // Customer details
+        put(BEFORE_CUSTOMER);
+        putLeft(String.valueOf(invoice.getCustomerName()), FIELD_WIDTH);
+        put(BEFORE_CONTACT);
+        putLeft(String.valueOf(invoice.getContactNumber()), FIELD_WIDTH);
+        put(BEFORE_VEHICLE);
+        putLeft(String.valueOf(invoice.getVehicleNumber()), FIELD_WIDTH);
+        if (invoice.getCurrentMileage() != null && invoice.getCurrentMileage() > 0) {
+            put(BEFORE_MILEAGE);
+            putGrouped(invoice.getCurrentMileage());
+            put(AFTER_MILEAGE);
+        }
+
+        // Service items
+        put(ITEMS_HEADER);
+        for (InvoiceItem item : invoice.getItems()) {
+            String desc = String.valueOf(item.getDescription());
+            if (desc.length() > DESCRIPTION_WIDTH) {
+                // Truncate to fit column
+                put(desc, 0, DESCRIPTION_WIDTH - 2);
+                put("..");
+            } else {
+                putLeft(desc, DESCRIPTION_WIDTH);
+            }
+            putByte(' ');
+            putAmount(item.getPrice(), AMOUNT_WIDTH);
+            putByte('\n');
+        }
+
+        // Total
+        put(BEFORE_TOTAL);
+        putAmount(invoice.getTotalAmount(), AMOUNT_WIDTH);
+        put(FOOTER);
+    }
+
+    /**
+     * ESC/POS bytes of the printer test page
+     */
+    public static byte[] testPage() {
+        return TEST_PAGE.clone();
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    private void put(byte[] segment) {
+        ensureCapacity(segment.length);
+        System.arraycopy(segment, 0, buffer, length, segment.length);
+        length += segment.length;
+    }
+
+    private void putByte(char c) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) c;
+    }
+
+    private void put(String text) {
+        put(text, 0, text.length());
+    }
+
+    private void put(String text, int start, int end) {
+        ensureCapacity(end - start);
+        for (int i = start; i < end; i++) {
+            buffer[length++] = CODE_PAGE[text.charAt(i)];
+        }
+    }
+
+    private void putSpaces(int count) {
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            buffer[length++] = ' ';
+        }
+    }
+
+    /**
+     * Text padded with spaces to width; longer text is written in full, as %-Ns does
+     */
+    private void putLeft(String text, int width) {
+        put(text);
+        putSpaces(width - text.length());
+    }
+
+    private void putDateTime(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            put(dateTime.format(DATE_FORMATTER));
+            return;
+        }
+        putTwoDigits(dateTime.getDayOfMonth());
+        putByte('-');
+        putTwoDigits(dateTime.getMonthValue());
+        putByte('-');
+        putTwoDigits(year / 100);
+        putTwoDigits(year % 100);
+        putByte(' ');
+        putTwoDigits(dateTime.getHour());
+        putByte(':');
+        putTwoDigits(dateTime.getMinute());
+    }
+
+    private void putTwoDigits(int value) {
+        ensureCapacity(2);
+        buffer[length++] = (byte) ('0' + value / 10);
+        buffer[length++] = (byte) ('0' + value % 10);
+    }
+
+    /**
+     * A positive number with a comma between thousands, as %,d does
+     */
+    private void putGrouped(int value) {
+        int count = 0;
+        int pos = digits.length;
+        do {
+            if (count > 0 && count % 3 == 0) {
+                digits[--pos] = ',';
+            }
+            digits[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+            count++;
+        } while (value > 0);
+        putDigits(pos, 0);
+    }
+
+    /**
+     * An amount with two decimals, right-aligned in width, as %{width}.2f does
+     */
+    private void putAmount(double value, int width) {
+        double scaled = Math.abs(value) * 100;
+        double fraction = scaled - Math.floor(scaled);
+        if (!(scaled < 1e9) || Math.abs(fraction - 0.5) < 1e-6) {
+            // Over ten million, NaN, or close to a half cent. %.2f rounds the shortest decimal form of the
+            // double half up (1.005 prints as 1.01), which BigDecimal.valueOf reproduces
+            String text = Double.isFinite(value)
+                    ? BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString()
+                    : String.format(Locale.ROOT, "%.2f", value);
+            putSpaces(width - text.length());
+            put(text);
+            return;
+        }
+
+        long cents = Math.round(scaled);
+        int pos = digits.length;
+        digits[--pos] = (byte) ('0' + cents % 10);
+        digits[--pos] = (byte) ('0' + cents / 10 % 10);
+        digits[--pos] = '.';
+        long whole = cents / 100;
+        do {
+            digits[--pos] = (byte) ('0' + whole % 10);
+            whole /= 10;
+        } while (whole > 0);
+        // %.2f keeps the sign of negative amounts that round to zero, and of -0.0
+        if (Double.doubleToRawLongBits(value) < 0) {
+            digits[--pos] = '-';
+        }
+        putDigits(pos, width);
+    }
+
+    private void putDigits(int pos, int width) {
+        int count = digits.length - pos;
+        putSpaces(width - count);
+        ensureCapacity(count);
+        System.arraycopy(digits, pos, buffer, length, count);
+        length += count;
+    }
+
+    private static byte[] line(char c) {
+        char[] chars = new char[LINE_WIDTH];
+        Arrays.fill(chars, c);
+        return segment(new String(chars), "\n");
+    }
+
+    /**
+     * Concatenate control codes (byte[]) and text (String, in the code page)
+     */
+    private static byte[] segment(Object... parts) {
+        ReceiptTemplate out = new ReceiptTemplate();
+        for (Object part : parts) {
+            if (part instanceof byte[]) {
+                out.put((byte[]) part);
+            } else {
+                out.put((String) part);
+            }
+        }
+        return Arrays.copyOf(out.buffer, out.length);
+    }
+
+    private static byte[] buildCodePage() {
+        byte[] table = new byte[Character.MAX_VALUE + 1];
+        Arrays.fill(table, (byte) '?');
+        Charset charset;
+        try {
+            charset = Charset.forName("IBM437");
+        } catch (UnsupportedCharsetException e) {
+            charset = StandardCharsets.US_ASCII; // Runtime without the extended charsets
+        }
+        for (int b = 0; b < 256; b++) {
+            String decoded = new String(new byte[] { (byte) b }, charset);
+            if (decoded.length() == 1 && decoded.charAt(0) != '\uFFFD') {
+                table[decoded.charAt(0)] = (byte) b;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,81 @@
+package com.automasters.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Length of a revenue report. Each period is a calendar range (weeks start on Monday) containing the chosen date.
+ */
+public enum ReportPeriod {
+    DAY("Day"),
+    WEEK("Week"),
+    MONTH("Month"),
+    QUARTER("Quarter"),
+    YEAR("Year");
+
+    private final String displayName;
+
+    ReportPeriod(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public LocalDate startOf(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            case QUARTER:
+                return date.with(IsoFields.DAY_OF_QUARTER, 1);
+            case YEAR:
+                return date.withDayOfYear(1);
+            default:
+                return date;
+        }
+    }
+
+    /**
+     * Last day of the period containing date (inclusive)
+     */
+    public LocalDate endOf(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return startOf(date).plusDays(6);
+            case MONTH:
+                return date.with(TemporalAdjusters.lastDayOfMonth());
+            case QUARTER:
+                return startOf(date).plusMonths(3).minusDays(1);
+            case YEAR:
+                return date.with(TemporalAdjusters.lastDayOfYear());
+            default:
+                return date;
+        }
+    }
+
+    /**
+     * Human-readable name of the period containing date, e.g. "March 2026" or "Q1 2026"
+     */
+    public String describe(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+                return startOf(date).format(formatter) + " - " + endOf(date).format(formatter);
+            case MONTH:
+                return date.format(DateTimeFormatter.ofPattern("MMMM yyyy"));
+            case QUARTER:
+                return "Q" + date.get(IsoFields.QUARTER_OF_YEAR) + " " + date.getYear();
+            case YEAR:
+                return String.valueOf(date.getYear());
+            default:
+                return date.format(DateTimeFormatter.ofPattern("MMMM dd, yyyy"));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,111 @@
+package com.automasters.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+/**
+ * Sends receipts to a network printer's raw TCP port (port 9100 on Epson Ethernet interfaces).
+ * The connection is kept open between receipts and opened again on the next receipt after an error.
+ *
+ * The raw port never acknowledges anything, and a write to a connection the printer has dropped (e.g.
+ * it was switched off and on) can still appear to succeed. So before using a connection that has been
+ * idle for a while, the sink checks it has not been closed from the printer's side.
+ *
+ * Nor can the sink tell how much of a receipt the printer got before an error, so the whole receipt is
+ * sent again on the next attempt and the part that did arrive prints twice.
+ */
+public class SocketReceiptSink implements ReceiptSink {
+
+    public static final int RAW_PORT = 9100;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 3_000;
+    private static final long IDLE_CHECK_MILLIS = 1_000;
+
+    private final String host;
+    private final int port;
+    private final long idleCheckNanos;
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+    private long lastSendNanos;
+
+    public SocketReceiptSink(String host, int port) {
+        this(host, port, IDLE_CHECK_MILLIS);
+    }
+
+    SocketReceiptSink(String host, int port, long idleCheckMillis) {
+        this.host = host;
+        this.port = port;
+        this.idleCheckNanos = idleCheckMillis * 1_000_000L;
+    }
+
+    @Override
+    public synchronized void send(byte[] receipt) throws IOException {
+        try {
+            if (socket != null && System.nanoTime() - lastSendNanos > idleCheckNanos && isClosedByPrinter()) {
+                close();
+            }
+            if (socket == null) {
+                connect();
+            }
+            out.write(receipt);
+            out.flush();
+            lastSendNanos = System.nanoTime();
+        } catch (IOException e) {
+            // The printer may have been restarted; reconnect next time
+            close();
+            throw e;
+        }
+    }
+
+    private void connect() throws IOException {
+        Socket connecting = new Socket();
+        try {
+            connecting.setTcpNoDelay(true);
+            connecting.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            in = connecting.getInputStream();
+            out = connecting.getOutputStream();
+        } catch (IOException e) {
+            connecting.close();
+            throw e;
+        }
+        socket = connecting;
+    }
+
+    /**
+     * Whether the printer has closed the connection. Anything it sent (status bytes) is discarded.
+     */
+    private boolean isClosedByPrinter() {
+        try {
+            socket.setSoTimeout(1);
+            while (in.available() > 0) {
+                in.read();
+            }
+            return in.read() < 0;
+        } catch (SocketTimeoutException e) {
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        Socket open = socket;
+        socket = null;
+        in = null;
+        out = null;
+        if (open != null) {
+            open.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "tcp:" + host + ":" + port;
+    }
+}
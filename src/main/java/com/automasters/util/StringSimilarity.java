@@ -2,48 +2,193 @@ package com.automasters.util;
 
 public class StringSimilarity {
 
+    // Strings up to this length are compared with the bit-parallel algorithm
+    private static final int BIT_PARALLEL_MAX_LENGTH = 64;
+
+    /**
+     * Per-thread scratch space so distance calculations do not allocate
+     */
+    private static final class Buffers {
+        int[] previousRow = new int[32];
+        int[] currentRow = new int[32];
+        // Bit masks of pattern positions for each ASCII character
+        final long[] peq = new long[128];
+
+        void ensureRowCapacity(int length) {
+            if (previousRow.length < length) {
+                previousRow = new int[length];
+                currentRow = new int[length];
+            }
+        }
+    }
+
+    private static final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
     /**
      * Calculate Levenshtein distance between two strings
      * Returns the minimum number of single-character edits needed
      */
     public static int levenshteinDistance(String s1, String s2) {
-        s1 = s1.toLowerCase();
-        s2 = s2.toLowerCase();
-
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        return boundedDistance(s1.toLowerCase(), s2.toLowerCase(), Integer.MAX_VALUE);
+    }
 
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
+    /**
+     * Levenshtein distance between two strings compared exactly as given (no lower-casing),
+     * or maxDistance + 1 as soon as the distance is known to be larger than maxDistance.
+     */
+    public static int boundedDistance(CharSequence s1, CharSequence s2, int maxDistance) {
+        // Let s1 be the shorter string
+        if (s1.length() > s2.length()) {
+            CharSequence swap = s1;
+            s1 = s2;
+            s2 = swap;
         }
-        for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
+        int n = s1.length();
+        int m = s2.length();
+        maxDistance = Math.min(maxDistance, m);
+        if (m - n > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (n == 0) {
+            return m;
         }
 
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
-                } else {
-                    dp[i][j] = 1 + Math.min(dp[i - 1][j - 1],
-                            Math.min(dp[i - 1][j], dp[i][j - 1]));
+        Buffers scratch = buffers.get();
+        if (n <= BIT_PARALLEL_MAX_LENGTH) {
+            int distance = bitParallelDistance(s1, s2, maxDistance, scratch.peq);
+            if (distance >= 0) {
+                return distance;
+            }
+        }
+        return bandedDistance(s1, s2, maxDistance, scratch);
+    }
+
+    /**
+     * Myers' bit-parallel algorithm (Hyyro's formulation) with s1 as the pattern, one machine word per column.
+     * Returns -1 if s1 has non-ASCII characters, which the lookup table does not cover.
+     */
+    private static int bitParallelDistance(CharSequence s1, CharSequence s2, int maxDistance, long[] peq) {
+        int n = s1.length();
+        int m = s2.length();
+        for (int i = 0; i < n; i++) {
+            char c = s1.charAt(i);
+            if (c >= peq.length) {
+                for (int j = 0; j < i; j++) {
+                    peq[s1.charAt(j)] = 0;
                 }
+                return -1;
             }
+            peq[c] |= 1L << i;
+        }
+
+        long pv = n == 64 ? -1L : (1L << n) - 1;
+        long mv = 0;
+        long last = 1L << (n - 1);
+        int score = n;
+        for (int j = 0; j < m; j++) {
+            char c = s2.charAt(j);
+            long eq = c < peq.length ? peq[c] : 0;
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            // Each remaining column lowers the score by at most one
+            if (score - (m - j - 1) > maxDistance) {
+                score = maxDistance + 1;
+                break;
+            }
+            ph = (ph << 1) | 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+
+        for (int i = 0; i < n; i++) {
+            peq[s1.charAt(i)] = 0;
         }
+        return Math.min(score, maxDistance + 1);
+    }
+
+    /**
+     * Two-row dynamic programming restricted to the diagonal band |i - j| <= maxDistance (Ukkonen's cut-off),
+     * stopping once every cell in a row exceeds maxDistance.
+     */
+    private static int bandedDistance(CharSequence s1, CharSequence s2, int maxDistance, Buffers scratch) {
+        int n = s1.length();
+        int m = s2.length();
+        int over = maxDistance + 1;
+        scratch.ensureRowCapacity(m + 2);
+        int[] previous = scratch.previousRow;
+        int[] current = scratch.currentRow;
 
-        return dp[s1.length()][s2.length()];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= maxDistance ? j : over;
+        }
+        previous[m + 1] = over;
+
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(m, i + maxDistance);
+            current[from - 1] = from == 1 && i <= maxDistance ? i : over;
+            int rowMin = current[from - 1];
+            char c = s1.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = c == s2.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                value = Math.min(value, over);
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            current[to + 1] = over;
+            if (rowMin > maxDistance) {
+                return over;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
     }
 
     /**
      * Calculate similarity percentage (0-100)
      */
     public static double similarityPercentage(String s1, String s2) {
-        int distance = levenshteinDistance(s1, s2);
-        int maxLength = Math.max(s1.length(), s2.length());
+        return similarityPercentage(levenshteinDistance(s1, s2), s1.length(), s2.length());
+    }
+
+    /**
+     * Similarity percentage for two strings of the given lengths that are distance edits apart
+     */
+    public static double similarityPercentage(int distance, int length1, int length2) {
+        int maxLength = Math.max(length1, length2);
         if (maxLength == 0)
             return 100.0;
         return (1.0 - (double) distance / maxLength) * 100.0;
     }
 
+    /**
+     * Largest edit distance at which a string of the given length can still reach threshold
+     * similarity with any other string, or -1 if every string does (threshold <= 0).
+     * Follows from distance <= (1 - threshold/100) * max(length, otherLength) and
+     * otherLength <= length + distance.
+     */
+    public static int maxDistanceFor(int length, double threshold) {
+        double allowed = 1.0 - threshold / 100.0;
+        if (allowed >= 1.0) {
+            return -1;
+        }
+        if (allowed <= 0.0) {
+            return 0;
+        }
+        return (int) Math.floor(allowed * length / (1.0 - allowed) + 1e-9);
+    }
+
     /**
      * Normalize string for comparison
      * Removes spaces, special characters, converts to lowercase
@@ -51,6 +196,28 @@ public class StringSimilarity {
     public static String normalize(String str) {
         if (str == null)
             return "";
+        // Fast path for plain ASCII, which is what item names almost always are
+        char[] chars = null;
+        int length = 0;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c >= 128) {
+                return normalizeUnicode(str);
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            } else if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                continue;
+            }
+            if (chars == null) {
+                chars = new char[str.length()];
+            }
+            chars[length++] = c;
+        }
+        return chars == null ? "" : new String(chars, 0, length);
+    }
+
+    private static String normalizeUnicode(String str) {
         // Remove spaces and special characters, keep only alphanumeric
         return str.toLowerCase()
                 .replaceAll("[^a-z0-9]", "")
@@ -76,7 +243,14 @@ public class StringSimilarity {
             return true;
         }
 
-        // Check similarity percentage
-        return similarityPercentage(norm1, norm2) >= threshold;
+        // Only compute the distance as far as it can still reach the threshold
+        int maxLength = Math.max(norm1.length(), norm2.length());
+        int maxDistance = (int) Math.floor((1.0 - threshold / 100.0) * maxLength + 1e-9);
+        if (maxDistance < 0) {
+            return false;
+        }
+        int distance = boundedDistance(norm1, norm2, maxDistance);
+        return distance <= maxDistance
+                && similarityPercentage(distance, norm1.length(), norm2.length()) >= threshold;
     }
 }
@@ -0,0 +1,81 @@
+package com.automasters.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable trigram index over an array of keys, for substring search without comparing the term
+ * against every key. Maps each three-character gram to the ascending positions of the keys that
+ * contain it; a key containing the term must contain all of the term's grams.
+ */
+public class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, int[]> postings;
+
+    public TrigramIndex(String[] keys) {
+        Map<String, List<Integer>> lists = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            for (int j = 0; j + GRAM <= key.length(); j++) {
+                List<Integer> positions = lists.computeIfAbsent(key.substring(j, j + GRAM),
+                        gram -> new ArrayList<>());
+                // Positions are added in ascending order; skip repeats within one key
+                if (positions.isEmpty() || positions.get(positions.size() - 1) != i) {
+                    positions.add(i);
+                }
+            }
+        }
+
+        postings = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Ascending positions of keys containing every trigram of the term. These are candidates only:
+     * callers still have to check that the key contains the term. The term must be at least GRAM long.
+     */
+    public int[] candidates(String term) {
+        int[][] lists = new int[term.length() - GRAM + 1][];
+        for (int j = 0; j < lists.length; j++) {
+            int[] positions = postings.get(term.substring(j, j + GRAM));
+            if (positions == null) {
+                return NONE;
+            }
+            lists[j] = positions;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(positions -> positions.length));
+
+        int[] result = lists[0];
+        for (int j = 1; j < lists.length && result.length > 0; j++) {
+            result = intersect(result, lists[j]);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
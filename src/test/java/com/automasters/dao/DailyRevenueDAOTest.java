@@ -0,0 +1,100 @@
+package com.automasters.dao;
+
+import com.automasters.entity.DailyRevenue;
+import com.automasters.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.automasters.dao.TestInvoices.invoice;
+import static com.automasters.dao.TestInvoices.line;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyRevenueDAOTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    @BeforeEach
+    void deleteInvoices() {
+        TestInvoices.deleteAll();
+    }
+
+    @AfterEach
+    void forgetRebuild() {
+        DailyRevenueDAO.REBUILD.reset();
+    }
+
+    @Test
+    void savedInvoicesAreRolledUpAndRebuildAgrees() {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        DailyRevenueDAO dailyRevenueDAO = new DailyRevenueDAO();
+        invoiceDAO.save(invoice(DAY, "CAB-0001", line("Line 1", 1000.0), line("Line 2", 250.0)));
+        invoiceDAO.save(invoice(DAY, "CAB-0001", line("Line 1", 500.0)));
+        invoiceDAO.save(invoice(DAY.plusDays(2), "CAB-0001",
+                line("Line 1", 300.0), line("Line 2", 200.0), line("Line 3", 100.0)));
+
+        assertRollup(dailyRevenueDAO);
+        assertEquals(1750.0, invoiceDAO.calculateTotalIncome(DAY), 0.001);
+        assertEquals(2350.0, invoiceDAO.calculateTotalIncome(DAY, DAY.plusDays(2)), 0.001);
+        assertEquals(0.0, invoiceDAO.calculateTotalIncome(DAY.plusDays(1)), 0.001);
+
+        assertEquals(2, dailyRevenueDAO.rebuild());
+        assertRollup(dailyRevenueDAO);
+    }
+
+    @Test
+    void saveWaitsForRollupRebuild() throws Exception {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        DailyRevenueDAO dailyRevenueDAO = new DailyRevenueDAO();
+        // An invoice from before daily_revenue was added: no row for its day
+        invoiceDAO.save(invoice(DAY, "CAB-0001", line("Line 1", 1000.0)));
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM DailyRevenue").executeUpdate();
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+        List<Runnable> startupTasks = new ArrayList<>();
+        DailyRevenueDAO.REBUILD.start(startupTasks::add);
+
+        Thread save = new Thread(() -> invoiceDAO.save(invoice(DAY.plusDays(1), "CAB-0001", line("Line 1", 500.0))));
+        save.start();
+        while (save.getState() != Thread.State.WAITING) {
+            assertTrue(save.isAlive(), "Invoice was saved before the rollup was rebuilt");
+            Thread.onSpinWait();
+        }
+
+        startupTasks.forEach(Runnable::run);
+        save.join(5_000);
+        assertFalse(save.isAlive());
+        // Had the new invoice's day been rolled up first, the table would not have been empty and the
+        // rebuild skipped, leaving out the older invoice
+        assertEquals(1500.0, dailyRevenueDAO.calculateTotal(DAY, DAY.plusDays(1)), 0.001);
+    }
+
+    private static void assertRollup(DailyRevenueDAO dailyRevenueDAO) {
+        List<DailyRevenue> days = dailyRevenueDAO.findByDateRange(DAY, DAY.plusDays(2));
+        assertEquals(2, days.size());
+
+        assertEquals(DAY, days.get(0).getRevenueDate());
+        assertEquals(2, days.get(0).getInvoiceCount());
+        assertEquals(3, days.get(0).getLineCount());
+        assertEquals(1750.0, days.get(0).getTotalAmount(), 0.001);
+
+        assertEquals(DAY.plusDays(2), days.get(1).getRevenueDate());
+        assertEquals(1, days.get(1).getInvoiceCount());
+        assertEquals(3, days.get(1).getLineCount());
+        assertEquals(600.0, days.get(1).getTotalAmount(), 0.001);
+    }
+}
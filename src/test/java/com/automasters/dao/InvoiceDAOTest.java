@@ -0,0 +1,151 @@
+package com.automasters.dao;
+
+import com.automasters.dto.InvoiceSummary;
+import com.automasters.entity.Invoice;
+import com.automasters.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.automasters.dao.TestInvoices.invoice;
+import static com.automasters.dao.TestInvoices.line;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceDAOTest {
+
+    @AfterEach
+    void forgetAlignment() {
+        IdSequenceDAO.ALIGNMENT.reset();
+    }
+
+    @BeforeEach
+    void startWithoutInvoices() {
+        TestInvoices.deleteAll();
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM InvoiceSequence").executeUpdate();
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    @Test
+    void firstInvoiceTakesTheEnteredNumber() {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        assertTrue(invoiceDAO.isFirstInvoice());
+
+        Invoice first = invoice(LocalDate.of(2026, 6, 1), "CAB-0001", line("Service", 1000.0));
+        first.setInvoiceNumber("INV-0000500");
+        invoiceDAO.save(first);
+        invoiceDAO.save(invoice(LocalDate.of(2026, 6, 1), "CAB-0001", line("Service", 1000.0)));
+
+        assertEquals("INV-0000500", first.getInvoiceNumber());
+        assertEquals("INV-0000502", invoiceDAO.generateNextInvoiceNumber());
+        assertFalse(invoiceDAO.isFirstInvoice());
+    }
+
+    @Test
+    void failedSaveLeavesNoIssuedNumberOnTheInvoice() {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        invoiceDAO.save(invoice(LocalDate.of(2026, 6, 1), "CAB-0001", line("Service", 1000.0)));
+        String next = invoiceDAO.generateNextInvoiceNumber();
+
+        Invoice broken = invoice(LocalDate.of(2026, 6, 1), "CAB-0001", line(null, 1000.0));
+        broken.setInvoiceNumber(next);
+        assertThrows(RuntimeException.class, () -> invoiceDAO.save(broken));
+
+        assertEquals(next, broken.getInvoiceNumber());
+        assertNull(broken.getId());
+        assertNull(broken.getItems().get(0).getId());
+        assertEquals(next, invoiceDAO.generateNextInvoiceNumber());
+
+        broken.getItems().get(0).setDescription("Service");
+        invoiceDAO.save(broken);
+        assertEquals(next, broken.getInvoiceNumber());
+    }
+
+    @Test
+    void saveWaitsForBackgroundIdAlignment() throws Exception {
+        List<Runnable> startupTasks = new ArrayList<>();
+        CompletableFuture<Void> alignment = IdSequenceDAO.ALIGNMENT.start(startupTasks::add);
+        CountDownLatch saved = new CountDownLatch(1);
+        Thread save = new Thread(() -> {
+            new InvoiceDAO().save(invoice(LocalDate.of(2026, 6, 2), "CAB-0002", line("Service", 1000.0)));
+            saved.countDown();
+        });
+        save.start();
+        // Parked waiting for the alignment, which has not run yet
+        while (save.getState() != Thread.State.WAITING) {
+            assertEquals(1, saved.getCount(), "Saved before the id sequences were aligned");
+            Thread.onSpinWait();
+        }
+        assertEquals(1, saved.getCount(), "Saved before the id sequences were aligned");
+
+        startupTasks.forEach(Runnable::run);
+        alignment.get(5, TimeUnit.SECONDS);
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void concurrentFirstSavesGetDistinctNumbers() throws Exception {
+        int terminals = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(terminals);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> saves = new ArrayList<>();
+            for (int i = 0; i < terminals; i++) {
+                saves.add(executor.submit(() -> {
+                    Invoice invoice = invoice(LocalDate.of(2026, 6, 1), "CAB-0001", line("Service", 1000.0));
+                    start.await();
+                    new InvoiceDAO().save(invoice);
+                    return invoice.getInvoiceNumber();
+                }));
+            }
+            start.countDown();
+
+            Set<String> numbers = new HashSet<>();
+            for (Future<String> save : saves) {
+                numbers.add(save.get());
+            }
+            assertEquals(Set.of("INV-0000001", "INV-0000002", "INV-0000003", "INV-0000004"), numbers);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shortVehicleSearchMatchingManyKeysFallsBackToLike() {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        LocalDate day = LocalDate.of(2026, 6, 1);
+        for (int i = 0; i < 250; i++) {
+            invoiceDAO.save(invoice(day.plusDays(i), "QX-" + (1000 + i), line("Service", 1000.0)));
+        }
+
+        List<InvoiceSummary> all = invoiceDAO.findSummariesByVehicleNumber("qx");
+        assertEquals(250, all.size());
+        assertEquals("QX-1249", all.get(0).vehicleNumber()); // Newest first
+
+        List<InvoiceSummary> one = invoiceDAO.findSummariesByVehicleNumber("qx 1123");
+        assertEquals(1, one.size());
+        assertEquals("QX-1123", one.get(0).vehicleNumber());
+    }
+}
@@ -0,0 +1,165 @@
+package com.automasters.dao;
+
+import com.automasters.entity.Item;
+import com.automasters.util.StringSimilarity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ItemCatalog with the database replaced by an item list.
+ */
+class ItemCatalogTest {
+
+    private static Item item(long id, String name) {
+        Item item = new Item(name, null);
+        item.setId(id);
+        return item;
+    }
+
+    private static final String[] WORDS = {
+            "Oil", "Filter", "Brake", "Pad", "Shoe", "Air", "Fuel", "Spark", "Plug", "Belt", "Wiper",
+            "Blade", "Front", "Rear", "Toyota", "Axio", "Honda", "Civic", "5W30", "10W40", "1L", "4L"
+    };
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                name.append(random.nextBoolean() ? " " : "-");
+            }
+            name.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return name.toString();
+    }
+
+    /**
+     * A name as a user might type it again: a letter dropped, changed or doubled, or the case changed
+     */
+    private static String typo(Random random, String name) {
+        int at = random.nextInt(name.length());
+        switch (random.nextInt(4)) {
+            case 0:
+                return name.substring(0, at) + name.substring(at + 1);
+            case 1:
+                return name.substring(0, at) + (char) ('a' + random.nextInt(26)) + name.substring(at + 1);
+            case 2:
+                return name.substring(0, at + 1) + name.charAt(at) + name.substring(at + 1);
+            default:
+                return name.toUpperCase();
+        }
+    }
+
+    private static void assertSameAsScan(ItemCatalog catalog, List<Item> items, String query, double threshold) {
+        Set<Item> expected = new HashSet<>();
+        for (Item item : items) {
+            if (StringSimilarity.areSimilar(query, item.getItemName(), threshold)) {
+                expected.add(item);
+            }
+        }
+        assertEquals(expected, new HashSet<>(catalog.findSimilar(query, threshold)), query + " @ " + threshold);
+    }
+
+    @Test
+    void findSimilarMatchesScanWithAreSimilar() {
+        Random random = new Random(5);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            items.add(item(i, randomName(random)));
+        }
+        ItemCatalog catalog = ItemCatalog.of(items);
+
+        double[] thresholds = {50.0, 75.0, 80.0, 90.0, 100.0};
+        for (int i = 0; i < 300; i++) {
+            String query = random.nextBoolean() ? randomName(random)
+                    : typo(random, items.get(random.nextInt(items.size())).getItemName());
+            assertSameAsScan(catalog, items, query, thresholds[i % thresholds.length]);
+        }
+    }
+
+    @Test
+    void saveAndDeleteKeepSimilarityIndexInStep() {
+        Random random = new Random(9);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            items.add(item(i, randomName(random)));
+        }
+        ItemCatalog catalog = ItemCatalog.of(items);
+        assertSameAsScan(catalog, items, "Oil Filter", 75.0); // Builds the index
+
+        for (int i = 0; i < 200; i++) {
+            switch (random.nextInt(3)) {
+                case 0: {
+                    Item added = item(1000 + i, randomName(random));
+                    items.add(added);
+                    catalog.itemSaved(added);
+                    break;
+                }
+                case 1: {
+                    // Renamed: saved as a new instance with the same id
+                    int at = random.nextInt(items.size());
+                    Item renamed = item(items.get(at).getId(), randomName(random));
+                    items.set(at, renamed);
+                    catalog.itemSaved(renamed);
+                    break;
+                }
+                default:
+                    catalog.itemDeleted(items.remove(random.nextInt(items.size())));
+                    break;
+            }
+        }
+
+        assertEquals(items.size(), catalog.findAll().size());
+        for (int i = 0; i < 100; i++) {
+            String query = typo(random, items.get(random.nextInt(items.size())).getItemName());
+            assertSameAsScan(catalog, items, query, 75.0);
+        }
+    }
+
+    @Test
+    void backgroundReloadKeepsItemSavedDuringLoad() throws Exception {
+        List<Item> database = new ArrayList<>(List.of(item(1, "Oil Filter")));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch reloadStarted = new CountDownLatch(1);
+        CountDownLatch finishReload = new CountDownLatch(1);
+        ItemCatalog catalog = new ItemCatalog(() -> {
+            List<Item> items = new ArrayList<>(database);
+            if (loads.incrementAndGet() == 2) {
+                reloadStarted.countDown();
+                try {
+                    finishReload.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return items;
+        }, 0);
+
+        assertNotNull(catalog.findByName("oil filter"));
+        Thread.sleep(2);
+        catalog.findAll(); // Stale, starts the background reload
+        assertTrue(reloadStarted.await(5, TimeUnit.SECONDS));
+
+        // Saved after the reload read the items, so the reload does not include it
+        Item airFilter = item(2, "Air Filter");
+        database.add(airFilter);
+        catalog.itemSaved(airFilter);
+        finishReload.countDown();
+        while (catalog.isReloading()) {
+            Thread.sleep(1);
+        }
+
+        assertSame(airFilter, catalog.findByName("Air Filter"));
+        assertTrue(catalog.existsByName("air filter"));
+    }
+}
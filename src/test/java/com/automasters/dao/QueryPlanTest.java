@@ -0,0 +1,213 @@
+package com.automasters.dao;
+
+import com.automasters.dto.InvoiceReportRow;
+import com.automasters.dto.InvoiceSummary;
+import com.automasters.dto.TransactionRow;
+import com.automasters.entity.Invoice;
+import com.automasters.entity.InvoiceItem;
+import com.automasters.entity.InvoiceSequence;
+import com.automasters.entity.Item;
+import com.automasters.entity.StockBatch;
+import com.automasters.entity.StockTransaction;
+import com.automasters.util.HibernateUtil;
+import com.automasters.util.ReportPeriod;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs each DAO query against H2 (MySQL mode), EXPLAINs the SQL it sent and fails if any table
+ * is read with a full scan, i.e. if a query no longer matches one of the entity indexes.
+ */
+class QueryPlanTest {
+
+    private static Item item;
+
+    @BeforeAll
+    static void createData() {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            LocalDateTime start = LocalDateTime.now().minusDays(200);
+            List<Item> items = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Item created = new Item("Part " + i, null);
+                session.persist(created);
+                items.add(created);
+            }
+            for (int i = 0; i < 400; i++) {
+                Item batchItem = items.get(i % items.size());
+                StockBatch batch = new StockBatch(batchItem, i % 4, 100.0, 150.0, "B" + i);
+                batch.setBatchDate(start.plusHours(i));
+                session.persist(batch);
+
+                StockTransaction stockTransaction = new StockTransaction(batchItem,
+                        i % 2 == 0 ? "STOCK_IN" : "STOCK_OUT", 1);
+                stockTransaction.setTransactionDate(start.plusHours(i));
+                session.persist(stockTransaction);
+
+                Invoice invoice = new Invoice(String.format("PLAN-%07d", i + 1), "Customer " + i, "077",
+                        "CAB-" + (1000 + i), 1000);
+                invoice.setInvoiceDate(start.plusHours(i * 12L));
+                invoice.addItem(new InvoiceItem(1, "Service", 1500.0));
+                session.persist(invoice);
+            }
+            if (session.get(InvoiceSequence.class, InvoiceSequence.INVOICE) == null) {
+                session.persist(new InvoiceSequence(InvoiceSequence.INVOICE, 0));
+            }
+            transaction.commit();
+            item = items.get(7);
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+
+        // Give the optimizer row counts to work with
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            session.doWork(connection -> connection.createStatement().execute("ANALYZE"));
+        }
+    }
+
+    /**
+     * Run the DAO call and return the EXPLAIN output of every SELECT it sent
+     */
+    private static List<String> plansOf(Runnable daoCall) {
+        RecordingStatementInspector.clear();
+        daoCall.run();
+
+        List<String> plans = new ArrayList<>();
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            for (String sql : RecordingStatementInspector.statements()) {
+                if (!sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                    continue;
+                }
+                session.doWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                         ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            plans.add(resultSet.getString(1));
+                        }
+                    }
+                });
+            }
+        }
+        assertFalse(plans.isEmpty(), "DAO call ran no SELECT");
+        return plans;
+    }
+
+    private static void assertUsesIndexes(Runnable daoCall) {
+        for (String plan : plansOf(daoCall)) {
+            assertFalse(plan.contains(".tableScan"), "Full table scan:\n" + plan);
+        }
+    }
+
+    @Test
+    void invoiceSummariesByDateUseDateIndex() {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        assertUsesIndexes(() -> invoiceDAO.findSummariesByDateRange(LocalDate.now().minusDays(30)));
+        assertUsesIndexes(() -> invoiceDAO.findSummariesByDateRange(LocalDate.now().minusDays(30),
+                LocalDate.now()));
+    }
+
+    @Test
+    void invoicesWithItemsByDateUseIndexes() {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        assertUsesIndexes(() -> invoiceDAO.findByDateRange(LocalDate.now().minusDays(30)));
+        assertUsesIndexes(() -> {
+            try (Stream<InvoiceReportRow> rows = invoiceDAO.streamReportRows(LocalDate.now().minusDays(30),
+                    LocalDate.now())) {
+                rows.forEach(row -> { });
+            }
+        });
+        assertUsesIndexes(() -> invoiceDAO.findByIds(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void totalIncomeUsesDateIndex() {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        assertUsesIndexes(() -> invoiceDAO.calculateTotalIncome(LocalDate.now().minusDays(30)));
+        assertUsesIndexes(() -> invoiceDAO.calculateTotalIncome(LocalDate.now().minusDays(30), LocalDate.now()));
+    }
+
+    @Test
+    void revenueReportsUseIndexes() {
+        RevenueReportDAO reportDAO = new RevenueReportDAO();
+        assertUsesIndexes(() -> reportDAO.buildReport(ReportPeriod.MONTH, LocalDate.now()));
+        assertUsesIndexes(() -> reportDAO.buildReport(ReportPeriod.YEAR, LocalDate.now()));
+    }
+
+    @Test
+    void invoiceLookupsUseKeys() {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        assertUsesIndexes(() -> invoiceDAO.findById(1L));
+        assertUsesIndexes(() -> invoiceDAO.findItemsByInvoiceId(1L));
+        assertUsesIndexes(invoiceDAO::generateNextInvoiceNumber);
+    }
+
+    @Test
+    void vehicleSearchUsesKeyIndex() {
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        VehicleKeyIndex.getInstance().invalidate();
+        assertUsesIndexes(() -> invoiceDAO.findSummariesByVehicleNumber("cab-1234"));
+        assertUsesIndexes(() -> invoiceDAO.findSummariesByVehicleNumber("1234"));
+        assertUsesIndexes(() -> invoiceDAO.findByVehicleNumber("CAB 12"));
+
+        for (String search : new String[] { "CAB-1234", "cab1234", "B 1234", "1234" }) {
+            List<InvoiceSummary> found = invoiceDAO.findSummariesByVehicleNumber(search);
+            assertEquals(1, found.size(), search);
+            assertEquals("CAB-1234", found.get(0).vehicleNumber());
+        }
+
+        List<InvoiceSummary> found = invoiceDAO.findSummariesByVehicleNumber("cab-13");
+        assertEquals(100, found.size());
+        for (int i = 1; i < found.size(); i++) {
+            assertFalse(found.get(i).invoiceDate().isAfter(found.get(i - 1).invoiceDate()));
+        }
+        assertTrue(invoiceDAO.findSummariesByVehicleNumber(" - ").isEmpty());
+    }
+
+    @Test
+    void stockHistoryPagesUseIndexes() {
+        StockTransactionDAO transactionDAO = new StockTransactionDAO();
+        assertUsesIndexes(() -> transactionDAO.findRowsPage(null, null, null, 200));
+        assertUsesIndexes(() -> transactionDAO.findRowsPage(item, null, null, 200));
+        assertUsesIndexes(() -> transactionDAO.findRowsPage(null, "STOCK_IN", null, 200));
+        assertUsesIndexes(() -> transactionDAO.findRowsPage(item, "STOCK_OUT", null, 200));
+
+        List<TransactionRow> firstPage = transactionDAO.findRowsPage(null, null, null, 50);
+        assertUsesIndexes(() -> transactionDAO.findRowsPage(null, null, firstPage.get(firstPage.size() - 1), 50));
+    }
+
+    @Test
+    void stockTransactionFindersUseIndexes() {
+        StockTransactionDAO transactionDAO = new StockTransactionDAO();
+        assertUsesIndexes(() -> transactionDAO.findByItem(item));
+        assertUsesIndexes(() -> transactionDAO.findByType("STOCK_IN"));
+        assertUsesIndexes(() -> transactionDAO.findByItemAndType(item, "STOCK_IN"));
+        assertUsesIndexes(() -> transactionDAO.findByDateRange(LocalDateTime.now().minusDays(10),
+                LocalDateTime.now()));
+    }
+
+    @Test
+    void stockBatchQueriesUseIndexes() {
+        StockBatchDAO stockBatchDAO = new StockBatchDAO();
+        assertUsesIndexes(() -> stockBatchDAO.findByItem(item));
+        assertUsesIndexes(() -> stockBatchDAO.findAvailableBatches(item));
+        assertUsesIndexes(() -> stockBatchDAO.getTotalQuantity(item));
+        assertUsesIndexes(() -> stockBatchDAO.getTotalQuantities(List.of(item)));
+    }
+}
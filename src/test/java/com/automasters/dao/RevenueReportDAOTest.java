@@ -0,0 +1,90 @@
+package com.automasters.dao;
+
+import com.automasters.dto.InvoiceReportRow;
+import com.automasters.dto.RevenueReport;
+import com.automasters.util.ReportPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.automasters.dao.TestInvoices.invoice;
+import static com.automasters.dao.TestInvoices.line;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevenueReportDAOTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 5, 4);
+
+    @BeforeEach
+    void saveInvoices() {
+        TestInvoices.deleteAll();
+        InvoiceDAO invoiceDAO = new InvoiceDAO();
+        invoiceDAO.save(invoice(MONDAY, "WP XYZ-7788", line("Oil Change", 3000.0), line("Wash", 500.0)));
+        invoiceDAO.save(invoice(MONDAY.plusDays(3), "wp xyz 7788", line("Wash", 500.0)));
+        invoiceDAO.save(invoice(MONDAY.plusDays(10), "KA-9999", line("Oil Change", 3200.0)));
+        invoiceDAO.save(invoice(MONDAY.plusMonths(5), "KA-9999", line("Tune Up", 8000.0)));
+    }
+
+    @Test
+    void periodsCoverTheirCalendarRange() {
+        LocalDate date = LocalDate.of(2026, 8, 20); // Thursday
+        assertEquals(LocalDate.of(2026, 8, 17), ReportPeriod.WEEK.startOf(date));
+        assertEquals(LocalDate.of(2026, 8, 23), ReportPeriod.WEEK.endOf(date));
+        assertEquals(LocalDate.of(2026, 8, 31), ReportPeriod.MONTH.endOf(date));
+        assertEquals(LocalDate.of(2026, 7, 1), ReportPeriod.QUARTER.startOf(date));
+        assertEquals(LocalDate.of(2026, 9, 30), ReportPeriod.QUARTER.endOf(date));
+        assertEquals(LocalDate.of(2026, 1, 1), ReportPeriod.YEAR.startOf(date));
+        assertEquals("Q3 2026", ReportPeriod.QUARTER.describe(date));
+    }
+
+    @Test
+    void weekReportBreaksDownByDayServiceAndVehicle() {
+        RevenueReport report = new RevenueReportDAO().buildReport(ReportPeriod.WEEK, MONDAY.plusDays(2));
+
+        assertEquals(MONDAY, report.startDate());
+        assertEquals(2, report.invoiceCount());
+        assertEquals(3, report.lineCount());
+        assertEquals(4000.0, report.totalAmount(), 0.001);
+        assertEquals(2, report.byDay().size());
+
+        assertEquals(2, report.byService().size());
+        assertEquals("Oil Change", report.byService().get(0).description());
+        assertEquals(1000.0, report.byService().get(1).totalAmount(), 0.001);
+        assertEquals(2, report.byService().get(1).lineCount());
+
+        // Both spellings of the number are the same vehicle
+        assertEquals(1, report.byVehicle().size());
+        assertEquals(2, report.byVehicle().get(0).invoiceCount());
+    }
+
+    @Test
+    void yearReportIncludesEveryMonth() {
+        RevenueReport report = new RevenueReportDAO().buildReport(ReportPeriod.YEAR, MONDAY);
+
+        assertEquals(4, report.invoiceCount());
+        assertEquals(15200.0, report.totalAmount(), 0.001);
+        assertEquals("KA-9999", report.byVehicle().get(0).vehicleNumber());
+        assertEquals(11200.0, report.byVehicle().get(0).totalAmount(), 0.001);
+        assertEquals("Tune Up", report.byService().get(0).description());
+    }
+
+    @Test
+    void reportRowsFoldInvoiceLines() {
+        List<InvoiceReportRow> rows;
+        try (Stream<InvoiceReportRow> stream = new InvoiceDAO().streamReportRows(MONDAY, MONDAY.plusDays(6))) {
+            rows = stream.toList();
+        }
+
+        assertEquals(2, rows.size());
+        // Newest first
+        assertEquals("wp xyz 7788", rows.get(0).vehicleNumber());
+        assertEquals("Wash", rows.get(0).firstService());
+        assertEquals(1, rows.get(0).serviceCount());
+        assertEquals("Oil Change", rows.get(1).firstService());
+        assertEquals(2, rows.get(1).serviceCount());
+        assertEquals(3500.0, rows.get(1).totalAmount(), 0.001);
+    }
+}
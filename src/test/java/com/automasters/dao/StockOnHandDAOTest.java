@@ -0,0 +1,91 @@
+package com.automasters.dao;
+
+import com.automasters.entity.Item;
+import com.automasters.entity.StockBatch;
+import com.automasters.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockOnHandDAOTest {
+
+    private final StockBatchDAO stockBatchDAO = new StockBatchDAO();
+    private final StockOnHandDAO stockOnHandDAO = new StockOnHandDAO();
+
+    private static void inTransaction(Consumer<Session> work) {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            work.accept(session);
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    @BeforeEach
+    void startWithoutStock() {
+        inTransaction(session -> {
+            session.createMutationQuery("DELETE FROM StockOnHand").executeUpdate();
+            session.createMutationQuery("DELETE FROM StockTransaction").executeUpdate();
+            session.createMutationQuery("DELETE FROM StockBatch").executeUpdate();
+        });
+    }
+
+    @AfterEach
+    void forgetFill() {
+        StockOnHandDAO.FILL.reset();
+    }
+
+    /**
+     * An item with a batch of quantity as a database from before stock_on_hand has it: no counter row
+     */
+    private Item itemWithUncountedBatch(int quantity) {
+        Item item = new Item("Oil filter " + System.nanoTime(), "Test item");
+        new ItemDAO().save(item);
+        inTransaction(session -> session.persist(new StockBatch(item, quantity, 800.0, 1000.0, "B-1")));
+        return item;
+    }
+
+    @Test
+    void fillsEmptyCountersFromBatchesOnce() {
+        Item item = itemWithUncountedBatch(12);
+        assertEquals(0, stockBatchDAO.getTotalQuantity(item));
+
+        assertEquals(1, stockOnHandDAO.rebuildIfEmpty());
+        assertEquals(12, stockBatchDAO.getTotalQuantity(item));
+        assertEquals(0, stockOnHandDAO.rebuildIfEmpty());
+        assertTrue(stockOnHandDAO.verify().isEmpty());
+    }
+
+    @Test
+    void stockWriteWaitsForFill() throws Exception {
+        Item item = itemWithUncountedBatch(12);
+        List<Runnable> startupTasks = new ArrayList<>();
+        StockOnHandDAO.FILL.start(startupTasks::add);
+
+        Thread stockIn = new Thread(() -> stockBatchDAO.save(new StockBatch(item, 5, 800.0, 1000.0, "B-2")));
+        stockIn.start();
+        while (stockIn.getState() != Thread.State.WAITING) {
+            assertTrue(stockIn.isAlive(), "Stock was written before the counters were filled");
+            Thread.onSpinWait();
+        }
+
+        startupTasks.forEach(Runnable::run);
+        stockIn.join(5_000);
+        assertFalse(stockIn.isAlive());
+        // Had the batch been counted first, the table would not have been empty and the fill skipped
+        assertEquals(17, stockBatchDAO.getTotalQuantity(item));
+    }
+}
@@ -0,0 +1,54 @@
+package com.automasters.dao;
+
+import com.automasters.entity.Invoice;
+import com.automasters.entity.InvoiceItem;
+import com.automasters.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import java.time.LocalDate;
+
+/**
+ * Invoice fixtures for DAO tests that save invoices through InvoiceDAO.
+ */
+final class TestInvoices {
+
+    private TestInvoices() {
+    }
+
+    static InvoiceItem line(String description, double price) {
+        return new InvoiceItem(0, description, price);
+    }
+
+    /**
+     * An unsaved invoice dated 9:00 on the given day; lines are numbered in order
+     */
+    static Invoice invoice(LocalDate date, String vehicleNumber, InvoiceItem... lines) {
+        Invoice invoice = new Invoice("INV-0000001", "Customer", "077", vehicleNumber, 1000);
+        invoice.setInvoiceDate(date.atTime(9, 0));
+        for (int i = 0; i < lines.length; i++) {
+            lines[i].setSerialNumber(i + 1);
+            invoice.addItem(lines[i]);
+        }
+        return invoice;
+    }
+
+    /**
+     * Remove every invoice and the daily revenue rolled up from them, so a test only sees its own
+     */
+    static void deleteAll() {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM InvoiceItem").executeUpdate();
+            session.createMutationQuery("DELETE FROM Invoice").executeUpdate();
+            session.createMutationQuery("DELETE FROM DailyRevenue").executeUpdate();
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.automasters.ui;
+
+import com.automasters.dao.InvoiceDAO;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Startup of the invoice screen, which MainFrame shows first, against the in-memory test database.
+ */
+class InvoicePanelTest {
+
+    private static InvoicePanel createPanel(InvoiceDAO invoiceDAO, int numberRetryMillis, CountDownLatch ready)
+            throws Exception {
+        AtomicReference<InvoicePanel> panel = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            panel.set(new InvoicePanel(invoiceDAO, numberRetryMillis));
+            panel.get().onFirstInvoiceReady(ready::countDown);
+        });
+        return panel.get();
+    }
+
+    private static <T> T onEdt(Supplier<T> read) throws Exception {
+        AtomicReference<T> value = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> value.set(read.get()));
+        return value.get();
+    }
+
+    private static JTextField invoiceNumberField(InvoicePanel panel) throws Exception {
+        return onEdt(() -> findField(panel));
+    }
+
+    // The first text field on the form is the invoice number
+    private static JTextField findField(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JTextField) {
+                return (JTextField) component;
+            }
+            if (component instanceof Container) {
+                JTextField field = findField((Container) component);
+                if (field != null) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void firstInvoiceReadyWithNumber() throws Exception {
+        CountDownLatch ready = new CountDownLatch(1);
+
+        InvoicePanel panel = createPanel(new InvoiceDAO(), 5_000, ready);
+        assertTrue(ready.await(10, TimeUnit.SECONDS), "Invoice screen never became ready");
+
+        JTextField number = invoiceNumberField(panel);
+        assertTrue(onEdt(number::getText).matches("INV-\\d{7}"));
+    }
+
+    @Test
+    void failedNumberLoadLeavesFieldUsableAndRetries() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        InvoiceDAO failingOnce = new InvoiceDAO() {
+            @Override
+            public String generateNextInvoiceNumber() {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("Database unreachable");
+                }
+                return "INV-0000042";
+            }
+
+            @Override
+            public boolean isFirstInvoice() {
+                return false;
+            }
+        };
+        CountDownLatch ready = new CountDownLatch(1);
+
+        InvoicePanel panel = createPanel(failingOnce, 50, ready);
+        // The screen counts as ready (and warm-up starts) even though the number did not load
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        JTextField number = invoiceNumberField(panel);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (onEdt(number::getText).isEmpty()) {
+            assertTrue(onEdt(() -> number.isEditable() || !number.getText().isEmpty()),
+                    "Field must stay editable while the number is retried");
+            assertTrue(System.currentTimeMillis() < deadline, "Invoice number was not retried");
+            Thread.sleep(10);
+        }
+        assertEquals("INV-0000042", onEdt(number::getText));
+        assertEquals(2, attempts.get());
+    }
+}
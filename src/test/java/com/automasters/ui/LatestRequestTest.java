@@ -0,0 +1,30 @@
+package com.automasters.ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestRequestTest {
+
+    @Test
+    void cancellingCombinedRequestCancelsBothQueries() {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<Integer> second = new CompletableFuture<>();
+        CompletableFuture<String> combined = LatestRequest.combine(first, second, (a, b) -> a + b);
+
+        combined.cancel(false);
+
+        assertTrue(first.isCancelled());
+        assertTrue(second.isCancelled());
+    }
+
+    @Test
+    void combinedRequestCompletesWithBothResults() {
+        CompletableFuture<String> combined = LatestRequest.combine(CompletableFuture.completedFuture("day "),
+                CompletableFuture.completedFuture(7), (a, b) -> a + b);
+
+        assertEquals("day 7", combined.join());
+    }
+}
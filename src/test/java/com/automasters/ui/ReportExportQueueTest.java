@@ -0,0 +1,49 @@
+package com.automasters.ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportExportQueueTest {
+
+    @Test
+    void cancelAfterLastProgressUpdateStillFinishesDone() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        ReportExportQueue.Job job = ReportExportQueue.submit("late", export -> {
+            export.setProgress(1);
+            export.cancel(); // Pressed after the last chunk was written
+            return true;
+        }, export -> {
+            if (export.isFinished()) {
+                finished.countDown();
+            }
+        });
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(ReportExportQueue.Job.State.DONE, job.getState());
+        assertTrue(job.hasOutput());
+    }
+
+    @Test
+    void cancelBeforeProgressUpdateStopsTheJob() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        ReportExportQueue.Job job = ReportExportQueue.submit("early", export -> {
+            export.cancel();
+            if (!export.setProgress(0.5)) {
+                throw new CancellationException("Report cancelled");
+            }
+            return true;
+        }, export -> {
+            if (export.isFinished()) {
+                finished.countDown();
+            }
+        });
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(ReportExportQueue.Job.State.CANCELLED, job.getState());
+    }
+}
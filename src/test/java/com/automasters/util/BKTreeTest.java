@@ -0,0 +1,82 @@
+package com.automasters.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BKTree, checked against a scan of every key.
+ */
+class BKTreeTest {
+
+    private static final String ALPHABET = "abcde01";
+
+    private static String randomKey(Random random) {
+        int length = 1 + random.nextInt(10);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    private static Set<Integer> found(BKTree<Integer> tree, String query, int maxDistance) {
+        Set<Integer> values = new HashSet<>();
+        for (BKTree.Match<Integer> match : tree.search(query, maxDistance)) {
+            assertEquals(StringSimilarity.boundedDistance(query, match.key(), Integer.MAX_VALUE), match.distance());
+            assertTrue(values.add(match.value()), "Value found twice: " + match.value());
+        }
+        return values;
+    }
+
+    private static Set<Integer> scanned(List<String> keys, Set<Integer> present, String query, int maxDistance) {
+        Set<Integer> values = new HashSet<>();
+        for (int value : present) {
+            if (StringSimilarity.boundedDistance(query, keys.get(value), maxDistance) <= maxDistance) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @Test
+    void searchFindsSameValuesAsScan() {
+        Random random = new Random(11);
+        List<String> keys = new ArrayList<>();
+        Set<Integer> present = new HashSet<>();
+        BKTree<Integer> tree = new BKTree<>();
+        for (int i = 0; i < 2000; i++) {
+            // Some keys repeat, so nodes hold several values
+            keys.add(i % 10 == 0 && i > 0 ? keys.get(random.nextInt(i)) : randomKey(random));
+            tree.add(keys.get(i), i);
+            present.add(i);
+        }
+
+        for (int i = 0; i < 300; i++) {
+            String query = randomKey(random);
+            int maxDistance = random.nextInt(5);
+            assertEquals(scanned(keys, present, query, maxDistance), found(tree, query, maxDistance),
+                    query + " within " + maxDistance);
+        }
+
+        // Removing values leaves their nodes routing to the rest
+        for (int i = 0; i < 2000; i += 3) {
+            assertTrue(tree.remove(i));
+            present.remove(i);
+        }
+        assertFalse(tree.remove(0));
+        assertEquals(present.size(), tree.size());
+        for (int i = 0; i < 300; i++) {
+            String query = randomKey(random);
+            int maxDistance = random.nextInt(5);
+            assertEquals(scanned(keys, present, query, maxDistance), found(tree, query, maxDistance),
+                    query + " within " + maxDistance);
+        }
+    }
+}
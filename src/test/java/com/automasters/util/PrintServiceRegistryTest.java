@@ -0,0 +1,101 @@
+package com.automasters.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.print.PrintService;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PrintServiceRegistry with a fake list of printers.
+ */
+class PrintServiceRegistryTest {
+
+    private static PrintService printer(String name) {
+        return (PrintService) Proxy.newProxyInstance(PrintService.class.getClassLoader(),
+                new Class<?>[] { PrintService.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getName":
+                        case "toString":
+                            return name;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static class FakeLookup implements PrintServiceRegistry.Lookup {
+        final AtomicInteger calls = new AtomicInteger();
+        volatile PrintService[] services;
+        volatile PrintService defaultService;
+
+        FakeLookup(PrintService defaultService, PrintService... services) {
+            this.services = services;
+            this.defaultService = defaultService;
+        }
+
+        @Override
+        public PrintService[] services() {
+            calls.incrementAndGet();
+            return services;
+        }
+
+        @Override
+        public PrintService defaultService() {
+            return defaultService;
+        }
+    }
+
+    @Test
+    void looksUpOnceAndCachesChoice() {
+        PrintService office = printer("Office LaserJet");
+        PrintService epson = printer("EPSON TM-U220 Receipt");
+        FakeLookup lookup = new FakeLookup(office, office, epson);
+        PrintServiceRegistry registry = new PrintServiceRegistry(lookup);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(epson, registry.find(null));
+        }
+        assertSame(office, registry.find("laserjet"));
+        assertArrayEquals(new String[] { "Office LaserJet", "EPSON TM-U220 Receipt" }, registry.getPrinterNames());
+
+        assertEquals(1, lookup.calls.get());
+        assertEquals(1, registry.getLookupCount());
+        assertEquals(99, registry.getCacheHits());
+    }
+
+    @Test
+    void fallsBackToDefaultPrinter() {
+        PrintService office = printer("Office LaserJet");
+        PrintServiceRegistry registry = new PrintServiceRegistry(new FakeLookup(office, office));
+        assertSame(office, registry.find("tm-u220"));
+
+        PrintServiceRegistry empty = new PrintServiceRegistry(new FakeLookup(null));
+        assertNull(empty.find(null));
+        assertEquals(0, empty.getPrinterNames().length);
+    }
+
+    @Test
+    void reloadsAfterPrintFailure() {
+        PrintService office = printer("Office LaserJet");
+        FakeLookup lookup = new FakeLookup(office, office);
+        PrintServiceRegistry registry = new PrintServiceRegistry(lookup);
+        assertSame(office, registry.find(null));
+
+        // Receipt printer plugged in; not seen until something prompts a reload
+        PrintService epson = printer("EPSON TM-U220");
+        lookup.services = new PrintService[] { office, epson };
+        assertSame(office, registry.find(null));
+
+        registry.printFailed();
+        assertSame(epson, registry.find(null));
+        assertEquals(2, lookup.calls.get());
+        assertEquals(1, registry.getFailureRefreshes());
+    }
+}
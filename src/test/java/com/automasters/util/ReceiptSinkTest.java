@@ -0,0 +1,95 @@
+package com.automasters.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the receipt sinks, with FakePrinterServer standing in for a network printer.
+ */
+class ReceiptSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] receipt(int number) {
+        // Paper cut at the end, as ReceiptTemplate writes it; a cut-like prefix in the middle must not count
+        return new byte[] { 0x1B, 0x40, 0x1D, 0x56, (byte) ('0' + number % 10), '\n', 0x1D, 0x1D, 0x56, 0x00 };
+    }
+
+    @Test
+    void parsesSinkSpecs() {
+        assertInstanceOf(PrintServiceReceiptSink.class, ReceiptSink.fromSpec(null));
+        assertInstanceOf(PrintServiceReceiptSink.class, ReceiptSink.fromSpec("printer:TM-U220"));
+        assertEquals("tcp:192.168.1.50:9100", ReceiptSink.fromSpec("tcp:192.168.1.50").toString());
+        assertEquals("tcp:localhost:9101", ReceiptSink.fromSpec("tcp:localhost:9101").toString());
+        assertInstanceOf(FileReceiptSink.class, ReceiptSink.fromSpec("file:receipts.prn"));
+
+        assertThrows(IllegalArgumentException.class, () -> ReceiptSink.fromSpec("tcp:"));
+        assertThrows(IllegalArgumentException.class, () -> ReceiptSink.fromSpec("tcp:host:port"));
+        assertThrows(IllegalArgumentException.class, () -> ReceiptSink.fromSpec("usb:1"));
+        assertThrows(IllegalArgumentException.class, () -> ReceiptSink.fromSpec("memory"));
+    }
+
+    @Test
+    void fileSinkAppends() throws IOException {
+        Path file = tempDir.resolve("receipts.prn");
+        Files.write(file, new byte[] { 1, 2 });
+        try (FileReceiptSink sink = new FileReceiptSink(file)) {
+            sink.send(new byte[] { 3 });
+            sink.send(new byte[] { 4, 5 });
+        }
+        try (FileReceiptSink sink = new FileReceiptSink(file)) {
+            sink.send(new byte[] { 6 });
+        }
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6 }, Files.readAllBytes(file));
+    }
+
+    @Test
+    void socketSinkDeliversToFakePrinter() throws Exception {
+        try (FakePrinterServer server = new FakePrinterServer(0, 0);
+                ReceiptSink sink = ReceiptSink.fromSpec(server.getSinkSpec())) {
+            for (int i = 0; i < 100; i++) {
+                sink.send(receipt(i));
+            }
+            assertTrue(server.awaitReceipts(100, 5_000));
+            assertEquals(100 * receipt(0).length, server.getByteCount());
+        }
+    }
+
+    @Test
+    void socketSinkReconnectsAfterPrinterRestart() throws Exception {
+        try (FakePrinterServer server = new FakePrinterServer(0, 0);
+                SocketReceiptSink sink = new SocketReceiptSink("localhost", server.getPort(), 0)) {
+            sink.send(receipt(1));
+            assertTrue(server.awaitReceipts(1, 5_000));
+
+            server.disconnectClients();
+            Thread.sleep(50);
+            sink.send(receipt(2));
+            sink.send(receipt(3));
+            assertTrue(server.awaitReceipts(3, 5_000));
+        }
+    }
+
+    @Test
+    void spoolerPrintsThroughSocketSink() throws Exception {
+        try (FakePrinterServer server = new FakePrinterServer(0, 0)) {
+            ReceiptSpooler spooler = new ReceiptSpooler(tempDir.resolve("spool"),
+                    ReceiptSink.fromSpec(server.getSinkSpec()), 10);
+            try {
+                for (int i = 0; i < 20; i++) {
+                    spooler.submit("R" + i, receipt(i));
+                }
+                assertTrue(server.awaitReceipts(20, 5_000));
+            } finally {
+                spooler.shutdown();
+            }
+        }
+    }
+}
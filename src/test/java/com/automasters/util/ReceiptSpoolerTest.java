@@ -0,0 +1,180 @@
+package com.automasters.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReceiptSpooler with an in-memory printer.
+ */
+class ReceiptSpoolerTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the spooler");
+            Thread.sleep(5);
+        }
+    }
+
+    private long spooledFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void printsInOrderAndRemovesSpoolFiles() throws Exception {
+        List<String> printed = Collections.synchronizedList(new ArrayList<>());
+        ReceiptSpooler spooler = new ReceiptSpooler(spoolDir,
+                receipt -> printed.add(new String(receipt, StandardCharsets.US_ASCII)), 10);
+        try {
+            for (int i = 1; i <= 20; i++) {
+                spooler.submit("INV/" + i, bytes("receipt " + i));
+            }
+            waitUntil(() -> spooler.getStatus().pending() == 0);
+
+            assertEquals(20, printed.size());
+            for (int i = 1; i <= 20; i++) {
+                assertEquals("receipt " + i, printed.get(i - 1));
+            }
+            assertEquals(0, spooledFiles());
+        } finally {
+            spooler.shutdown();
+        }
+    }
+
+    @Test
+    void retriesFailedReceiptBeforeLaterOnes() throws Exception {
+        List<String> printed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger attempts = new AtomicInteger();
+        List<ReceiptSpooler.Status> statuses = Collections.synchronizedList(new ArrayList<>());
+        ReceiptSpooler spooler = new ReceiptSpooler(spoolDir, receipt -> {
+            if (attempts.incrementAndGet() <= 3) {
+                throw new IOException("Printer offline");
+            }
+            printed.add(new String(receipt, StandardCharsets.US_ASCII));
+        }, 5);
+        spooler.addListener(statuses::add);
+        try {
+            spooler.submit("A", bytes("first"));
+            spooler.submit("B", bytes("second"));
+            waitUntil(() -> spooler.getStatus().pending() == 0);
+
+            assertEquals(List.of("first", "second"), printed);
+            assertEquals(5, attempts.get());
+            assertTrue(statuses.stream().anyMatch(s -> s.failures() == 3 && "Printer offline".equals(s.lastError())
+                    && s.retryInMillis() == 20));
+            assertFalse(spooler.getStatus().isFailing());
+        } finally {
+            spooler.shutdown();
+        }
+    }
+
+    @Test
+    void printsBatchAsOneJob() throws Exception {
+        List<String> printed = Collections.synchronizedList(new ArrayList<>());
+        ReceiptSpooler spooler = new ReceiptSpooler(spoolDir,
+                receipt -> printed.add(new String(receipt, StandardCharsets.US_ASCII)), 10);
+        try {
+            spooler.submit("day", out -> {
+                for (int i = 1; i <= 3; i++) {
+                    out.write(bytes("receipt " + i + ";"));
+                }
+            });
+            assertThrows(IOException.class, () -> spooler.submit("broken", out -> {
+                out.write(bytes("half"));
+                throw new IOException("Render failed");
+            }));
+            waitUntil(() -> spooler.getStatus().pending() == 0);
+
+            assertEquals(List.of("receipt 1;receipt 2;receipt 3;"), printed);
+            assertEquals(0, spooledFiles());
+        } finally {
+            spooler.shutdown();
+        }
+    }
+
+    @Test
+    void receiptQueuedDuringSlowBatchPrintsAfterIt() throws Exception {
+        List<String> printed = Collections.synchronizedList(new ArrayList<>());
+        ReceiptSpooler spooler = new ReceiptSpooler(spoolDir,
+                receipt -> printed.add(new String(receipt, StandardCharsets.US_ASCII)), 10);
+        CountDownLatch writingBatch = new CountDownLatch(1);
+        CountDownLatch finishBatch = new CountDownLatch(1);
+        Thread batch = new Thread(() -> {
+            try {
+                spooler.submit("day", out -> {
+                    writingBatch.countDown();
+                    out.write(bytes("batch"));
+                    try {
+                        finishBatch.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            batch.start();
+            writingBatch.await();
+            spooler.submit("INV-1", bytes("receipt"));
+            Thread.sleep(50);
+            assertEquals(List.of(), printed);
+
+            finishBatch.countDown();
+            batch.join();
+            waitUntil(() -> spooler.getStatus().pending() == 0);
+            assertEquals(List.of("batch", "receipt"), printed);
+        } finally {
+            finishBatch.countDown();
+            spooler.shutdown();
+        }
+    }
+
+    @Test
+    void resumesReceiptsLeftInSpoolDirectory() throws Exception {
+        ReceiptSpooler offline = new ReceiptSpooler(spoolDir, receipt -> {
+            throw new IOException("Printer offline");
+        }, 60_000);
+        offline.submit("A", bytes("first"));
+        offline.submit("B", bytes("second"));
+        offline.shutdown();
+        assertEquals(2, spooledFiles());
+
+        List<String> printed = Collections.synchronizedList(new ArrayList<>());
+        ReceiptSpooler spooler = new ReceiptSpooler(spoolDir,
+                receipt -> printed.add(new String(receipt, StandardCharsets.US_ASCII)), 10);
+        try {
+            spooler.submit("C", bytes("third"));
+            waitUntil(() -> spooler.getStatus().pending() == 0);
+            assertEquals(List.of("first", "second", "third"), printed);
+            assertEquals(0, spooledFiles());
+        } finally {
+            spooler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.automasters.util;
+
+import com.automasters.entity.Invoice;
+import com.automasters.entity.InvoiceItem;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReceiptTemplate, checked against the receipt built with String.format as before.
+ */
+class ReceiptTemplateTest {
+
+    private static final Charset CP437 = Charset.forName("IBM437");
+    private static final String ALPHABET = "abcXYZ019 -./éüñ€";
+
+    /**
+     * The receipt as ReceiptPrinter used to build it, plus the code page selection
+     */
+    private static byte[] referenceReceipt(Invoice invoice) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(new byte[] { 0x1B, 0x40, 0x1B, 0x74, 0x00 });
+        baos.write(new byte[] { 0x1B, 0x61, 0x01, 0x1B, 0x21, 0x10, 0x1B, 0x45, 0x01 });
+        write(baos, "SAMPATH\nAUTO CARE\n");
+        baos.write(new byte[] { 0x1B, 0x21, 0x00 });
+        write(baos, "Vehicle Service Center\n" + line() + "\n");
+        baos.write(new byte[] { 0x1B, 0x61, 0x00, 0x1B, 0x45, 0x01 });
+        write(baos, String.format("Invoice: %s\n", invoice.getInvoiceNumber()));
+        baos.write(new byte[] { 0x1B, 0x45, 0x00 });
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+        write(baos, String.format("Date: %s\n", invoice.getInvoiceDate().format(formatter)) + "\n" + line());
+        write(baos, String.format("Cust : %-22s\n", invoice.getCustomerName()));
+        write(baos, String.format("Tel  : %-22s\n", invoice.getContactNumber()));
+        baos.write(new byte[] { 0x1B, 0x45, 0x01 });
+        write(baos, String.format("Veh  : %-22s\n", invoice.getVehicleNumber()));
+        if (invoice.getCurrentMileage() != null && invoice.getCurrentMileage() > 0) {
+            write(baos, String.format(Locale.ROOT, "Mil  : %,d km\n", invoice.getCurrentMileage()));
+        }
+        baos.write(new byte[] { 0x1B, 0x45, 0x00 });
+        write(baos, line() + "\n");
+        baos.write(new byte[] { 0x1B, 0x45, 0x01 });
+        write(baos, String.format("%-21s %10s\n", "Description", "Amount"));
+        baos.write(new byte[] { 0x1B, 0x45, 0x00 });
+        write(baos, line());
+        for (InvoiceItem item : invoice.getItems()) {
+            String desc = item.getDescription();
+            if (desc.length() > 21) {
+                desc = desc.substring(0, 19) + "..";
+            }
+            write(baos, String.format(Locale.ROOT, "%-21s %10s\n", desc,
+                    String.format(Locale.ROOT, "%.2f", item.getPrice())));
+        }
+        write(baos, line() + "\n");
+        baos.write(new byte[] { 0x1B, 0x61, 0x02, 0x1B, 0x45, 0x01, 0x1B, 0x21, 0x10 });
+        write(baos, String.format(Locale.ROOT, "TOTAL: %10.2f\n", invoice.getTotalAmount()));
+        baos.write(new byte[] { 0x1B, 0x21, 0x00, 0x1B, 0x45, 0x00, 0x0A, 0x1B, 0x61, 0x01 });
+        write(baos, line() + "Thank you!\nVisit us again\n\n\n\n");
+        baos.write(new byte[] { 0x1D, 0x56, 0x00 });
+        return baos.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream baos, String text) throws IOException {
+        baos.write(text.getBytes(CP437));
+    }
+
+    private static String line() {
+        return "-".repeat(32) + "\n";
+    }
+
+    private static String randomText(Random random, int maxLength) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    private static Invoice invoice(String customer, Integer mileage, double... prices) {
+        Invoice invoice = new Invoice("INV-000123", customer, "0771234567", "WP CAB-1234", mileage);
+        invoice.setInvoiceDate(LocalDateTime.of(2026, 3, 7, 9, 5));
+        for (int i = 0; i < prices.length; i++) {
+            invoice.addItem(new InvoiceItem(i + 1, "Service " + (i + 1), prices[i]));
+        }
+        return invoice;
+    }
+
+    @Test
+    void matchesFormattedReceipt() throws IOException {
+        ReceiptTemplate template = new ReceiptTemplate();
+        Invoice invoice = invoice("Nimal Perera", 123456, 1500, 250.5, 0.125, 1.005, 99999.995);
+        assertArrayEquals(referenceReceipt(invoice), template.render(invoice));
+
+        Invoice noMileage = invoice("A customer name longer than the column", null, 12_345_678.9, -0.001);
+        assertArrayEquals(referenceReceipt(noMileage), template.render(noMileage));
+    }
+
+    @Test
+    void matchesFormattedReceiptForRandomInvoices() throws IOException {
+        ReceiptTemplate template = new ReceiptTemplate();
+        Random random = new Random(42);
+        for (int n = 0; n < 2000; n++) {
+            Invoice invoice = new Invoice(randomText(random, 12), randomText(random, 30), randomText(random, 10),
+                    randomText(random, 12), random.nextInt(5) == 0 ? null : random.nextInt(1_000_000) - 10);
+            invoice.setInvoiceDate(LocalDateTime.of(2000 + random.nextInt(100), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60)));
+            int lines = random.nextInt(30);
+            for (int i = 0; i < lines; i++) {
+                double price = random.nextBoolean()
+                        ? random.nextInt(10_000_000) / 100.0
+                        : random.nextDouble() * Math.pow(10, random.nextInt(9));
+                invoice.addItem(new InvoiceItem(i + 1, randomText(random, 40), price));
+            }
+            // Reusing the buffer must not leave bytes of the previous, longer receipt behind
+            assertArrayEquals(referenceReceipt(invoice), template.render(invoice), "Invoice " + n);
+        }
+    }
+
+    @Test
+    void writesBatchOfReceipts() throws IOException {
+        Invoice first = invoice("Nimal Perera", 123456, 1500, 250.5);
+        Invoice second = invoice("Kamal Silva", null, 4200);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(referenceReceipt(first));
+        expected.write(referenceReceipt(second));
+
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        ReceiptPrinter.writeReceipts(List.of(first, second), batch);
+        assertArrayEquals(expected.toByteArray(), batch.toByteArray());
+    }
+
+    @Test
+    void testPageSelectsCodePage() {
+        byte[] page = ReceiptTemplate.testPage();
+        assertArrayEquals(new byte[] { 0x1B, 0x40, 0x1B, 0x74, 0x00 }, Arrays.copyOf(page, 5));
+        page[0] = 0;
+        assertEquals(0x1B, ReceiptTemplate.testPage()[0]);
+    }
+}
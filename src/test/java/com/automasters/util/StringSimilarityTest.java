@@ -0,0 +1,137 @@
+package com.automasters.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StringSimilarity, checked against the plain full-matrix Levenshtein.
+ */
+class StringSimilarityTest {
+
+    private static final String ALPHABET = "abcdeAB01 -é";
+
+    private static int referenceDistance(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= s2.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(dp[i - 1][j - 1] + cost, Math.min(dp[i - 1][j], dp[i][j - 1]) + 1);
+            }
+        }
+        return dp[s1.length()][s2.length()];
+    }
+
+    private static boolean referenceSimilar(String s1, String s2, double threshold) {
+        String norm1 = s1.toLowerCase().replaceAll("[^a-z0-9]", "");
+        String norm2 = s2.toLowerCase().replaceAll("[^a-z0-9]", "");
+        if (norm1.equals(norm2)) {
+            return true;
+        }
+        int maxLength = Math.max(norm1.length(), norm2.length());
+        return (1.0 - (double) referenceDistance(norm1, norm2) / maxLength) * 100.0 >= threshold;
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void distanceMatchesFullMatrix() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            // Cover both the bit-parallel (<= 64 chars) and the banded path
+            String s1 = randomString(random, i % 2 == 0 ? 20 : 90);
+            String s2 = randomString(random, i % 2 == 0 ? 20 : 90);
+            assertEquals(referenceDistance(s1, s2), StringSimilarity.boundedDistance(s1, s2, Integer.MAX_VALUE),
+                    s1 + " / " + s2);
+            assertEquals(referenceDistance(s1.toLowerCase(), s2.toLowerCase()),
+                    StringSimilarity.levenshteinDistance(s1, s2));
+        }
+    }
+
+    @Test
+    void boundedDistanceStopsAboveLimit() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            String s1 = randomString(random, i % 2 == 0 ? 20 : 90);
+            String s2 = randomString(random, i % 2 == 0 ? 20 : 90);
+            int limit = random.nextInt(12);
+            int expected = referenceDistance(s1, s2);
+            int actual = StringSimilarity.boundedDistance(s1, s2, limit);
+            if (expected <= limit) {
+                assertEquals(expected, actual, s1 + " / " + s2);
+            } else {
+                assertEquals(limit + 1, actual, s1 + " / " + s2);
+            }
+        }
+    }
+
+    @Test
+    void distanceOfSixtyFourCharacterPattern() {
+        String s1 = "a".repeat(64);
+        String s2 = "a".repeat(30) + "b" + "a".repeat(40);
+        assertEquals(referenceDistance(s1, s2), StringSimilarity.boundedDistance(s1, s2, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void normalizeKeepsLowerCaseLettersAndDigits() {
+        assertEquals("brakepad10w40", StringSimilarity.normalize(" Brake-Pad 10W/40 "));
+        assertEquals("", StringSimilarity.normalize(null));
+        assertEquals("", StringSimilarity.normalize("--- "));
+        assertEquals("caf", StringSimilarity.normalize("Café"));
+    }
+
+    @Test
+    void areSimilarMatchesReference() {
+        Random random = new Random(3);
+        double[] thresholds = {0.0, 50.0, 75.0, 80.0, 90.0, 100.0};
+        for (int i = 0; i < 20000; i++) {
+            String s1 = randomString(random, 16);
+            String s2 = random.nextBoolean() ? randomString(random, 16) : s1 + randomString(random, 3);
+            double threshold = thresholds[i % thresholds.length];
+            assertEquals(referenceSimilar(s1, s2, threshold), StringSimilarity.areSimilar(s1, s2, threshold),
+                    s1 + " / " + s2 + " @ " + threshold);
+        }
+    }
+
+    @Test
+    void maxDistanceForIsLargestDistanceThatCanReachThreshold() {
+        double[] thresholds = {1.0, 50.0, 66.7, 75.0, 80.0, 90.0, 99.0, 100.0};
+        for (int length = 0; length <= 40; length++) {
+            assertEquals(-1, StringSimilarity.maxDistanceFor(length, 0.0));
+            for (double threshold : thresholds) {
+                int maxDistance = StringSimilarity.maxDistanceFor(length, threshold);
+                assertTrue(canReach(length, maxDistance, threshold), length + " @ " + threshold);
+                assertFalse(canReach(length, maxDistance + 1, threshold), length + " @ " + threshold);
+            }
+        }
+    }
+
+    /**
+     * Whether some other string that is distance edits away from a string of the given length
+     * can be at least threshold percent similar to it
+     */
+    private static boolean canReach(int length, int distance, double threshold) {
+        for (int other = Math.max(0, length - distance); other <= length + distance; other++) {
+            if (distance <= Math.max(length, other)
+                    && StringSimilarity.similarityPercentage(distance, length, other) >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
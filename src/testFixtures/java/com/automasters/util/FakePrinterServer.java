@@ -0,0 +1,149 @@
+package com.automasters.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stand-in for a network receipt printer: listens like a printer's raw port and counts the receipts
+ * it receives (each ends with the ESC/POS paper cut), so printing can be tested and measured without
+ * hardware. Can be slowed down to a printer's speed.
+ *
+ * Shared by the tests and the benchmarks, not part of the application. To print to it by hand, build it
+ * with mvn -Pbenchmark compile and run
+ * java -cp target/classes com.automasters.util.FakePrinterServer [port] [bytes-per-second]
+ * then start the application with -Dautomasters.receipt.sink=tcp:localhost:PORT
+ */
+public class FakePrinterServer implements Closeable {
+
+    private static final byte[] CUT_PAPER = { 0x1D, 0x56, 0x00 };
+
+    private final ServerSocket serverSocket;
+    private final long bytesPerSecond;
+    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+    private final ReceiptCounter counter = new ReceiptCounter();
+
+    /**
+     * @param port 0 for any free port
+     * @param bytesPerSecond how fast to take data, 0 for as fast as possible
+     */
+    public FakePrinterServer(int port, long bytesPerSecond) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.bytesPerSecond = bytesPerSecond;
+        Thread acceptor = new Thread(this::acceptClients, "fake-printer-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Spec for ReceiptSink.fromSpec that sends to this server
+     */
+    public String getSinkSpec() {
+        return "tcp:localhost:" + getPort();
+    }
+
+    public long getReceiptCount() {
+        return counter.getReceiptCount();
+    }
+
+    public long getByteCount() {
+        return counter.getByteCount();
+    }
+
+    /**
+     * Wait until count receipts have arrived in total, see {@link ReceiptCounter#awaitReceipts(long, long)}
+     */
+    public boolean awaitReceipts(long count, long timeoutMillis) throws InterruptedException {
+        return counter.awaitReceipts(count, timeoutMillis);
+    }
+
+    /**
+     * Drop every open connection, as a printer does when it is switched off
+     */
+    public void disconnectClients() throws IOException {
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        disconnectClients();
+    }
+
+    private void acceptClients() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                clients.add(client);
+                Thread reader = new Thread(() -> readReceipts(client), "fake-printer-client");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Fake printer accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readReceipts(Socket client) {
+        byte[] buffer = new byte[bytesPerSecond > 0 ? (int) Math.max(1, Math.min(8192, bytesPerSecond / 10)) : 8192];
+        // How much of CUT_PAPER the data so far ends with; it may be split between reads
+        int matched = 0;
+        try (Socket socket = client; InputStream in = socket.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                int receipts = 0;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == CUT_PAPER[matched]) {
+                        if (++matched == CUT_PAPER.length) {
+                            receipts++;
+                            matched = 0;
+                        }
+                    } else {
+                        matched = buffer[i] == CUT_PAPER[0] ? 1 : 0;
+                    }
+                }
+                counter.add(receipts, read);
+                if (bytesPerSecond > 0) {
+                    Thread.sleep(read * 1000L / bytesPerSecond);
+                }
+            }
+        } catch (SocketException e) {
+            // Disconnected
+        } catch (IOException e) {
+            System.err.println("Fake printer read failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : SocketReceiptSink.RAW_PORT;
+        long bytesPerSecond = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        try (FakePrinterServer server = new FakePrinterServer(port, bytesPerSecond)) {
+            System.out.println("Fake printer listening on port " + server.getPort()
+                    + "; use -D" + ReceiptSink.SINK_PROPERTY + "=" + server.getSinkSpec());
+            long reported = 0;
+            while (true) {
+                server.awaitReceipts(reported + 1, Long.MAX_VALUE / 2);
+                reported = server.getReceiptCount();
+                System.out.println("Received " + reported + " receipt(s), " + server.getByteCount() + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.automasters.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps receipts in memory instead of printing them, for tests and benchmarks
+ */
+public class MemoryReceiptSink implements ReceiptSink {
+
+    private final List<byte[]> receipts = new ArrayList<>();
+    private final ReceiptCounter counter = new ReceiptCounter();
+
+    @Override
+    public synchronized void send(byte[] receipt) {
+        receipts.add(receipt.clone());
+        counter.add(1, receipt.length);
+    }
+
+    /**
+     * Copies of the receipts sent so far, oldest first
+     */
+    public synchronized List<byte[]> getReceipts() {
+        return new ArrayList<>(receipts);
+    }
+
+    public synchronized int getReceiptCount() {
+        return receipts.size();
+    }
+
+    public long getByteCount() {
+        return counter.getByteCount();
+    }
+
+    /**
+     * Wait until count receipts have been sent, see {@link ReceiptCounter#awaitReceipts(long, long)}
+     */
+    public boolean awaitReceipts(int count, long timeoutMillis) throws InterruptedException {
+        return counter.awaitReceipts(count, timeoutMillis);
+    }
+
+    public synchronized void clear() {
+        receipts.clear();
+        counter.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "memory";
+    }
+}
@@ -0,0 +1,47 @@
+package com.automasters.util;
+
+/**
+ * Counts receipts and bytes as they are delivered, and lets another thread wait for them; used by the
+ * sinks and printers that stand in for a real printer.
+ */
+public class ReceiptCounter {
+
+    private long receipts;
+    private long bytes;
+
+    public synchronized void add(long receipts, long bytes) {
+        this.receipts += receipts;
+        this.bytes += bytes;
+        notifyAll();
+    }
+
+    public synchronized long getReceiptCount() {
+        return receipts;
+    }
+
+    public synchronized long getByteCount() {
+        return bytes;
+    }
+
+    public synchronized void reset() {
+        receipts = 0;
+        bytes = 0;
+    }
+
+    /**
+     * Wait until count receipts have been delivered in total
+     *
+     * @return false if that took longer than timeoutMillis
+     */
+    public synchronized boolean awaitReceipts(long count, long timeoutMillis) throws InterruptedException {
+        long until = System.currentTimeMillis() + timeoutMillis;
+        while (receipts < count) {
+            long remaining = until - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+}